@@ -0,0 +1,61 @@
+package com.kcs.batch_sample.batch.job;
+
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.dto.UserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item cost of the user processors. Each invocation runs one chunk of distinct users through a
+ * fresh processor, as a step-scoped processor sees them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProcessorBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private UserInfo[] users;
+    private UserProcessingJob userProcessingJob;
+    private ItemProcessor<UserInfo, User> userIndividualProcessor;
+
+    @Setup
+    public void setUp() {
+        users = new UserInfo[CHUNK_SIZE];
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            users[i] = new UserInfo("user" + i, "user" + i + "@example.com");
+        }
+        // The processor beans use none of the collaborators of their configuration
+        userProcessingJob = new UserProcessingJob(null, null, null, null, null, null);
+        userIndividualProcessor = new IndividualProcessingJob(null, null, null, null, null, null, null, null, null)
+                .userIndividualProcessor();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void processUsersProcessor(Blackhole blackhole) throws Exception {
+        ItemProcessor<UserInfo, User> processor = userProcessingJob.processUsersProcessor();
+        for (UserInfo user : users) {
+            blackhole.consume(processor.process(user));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void userIndividualProcessor(Blackhole blackhole) throws Exception {
+        for (UserInfo user : users) {
+            blackhole.consume(userIndividualProcessor.process(user));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.kcs.batch_sample.batch.log;
+
+import com.kcs.batch_sample.repository.BatchLogRepository;
+import com.kcs.batch_sample.repository.BatchLogSummaryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a batch log step listener costs the chunk thread per skipped item: formatting the row and
+ * queueing it on {@link BatchLogSink}, with the rows drained by the sink's writer thread into a
+ * repository that discards them and summaries kept in an embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchLogSinkBenchmark {
+
+    @Param({"CALLER_RUNS", "DROP"})
+    private BatchLogSink.OverflowPolicy overflowPolicy;
+
+    private EmbeddedDatabase database;
+    private BatchLogSink sink;
+    private JobExecution jobExecution;
+    private long item;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE batch_log_summary (job_name VARCHAR(100) NOT NULL, step_name VARCHAR(100) NOT NULL, "
+                + "log_date DATE NOT NULL, message VARCHAR(100) NOT NULL, entry_count BIGINT NOT NULL, "
+                + "last_logged_at TIMESTAMP NOT NULL, PRIMARY KEY (job_name, log_date, message, step_name))");
+        BatchLogRepository repository = (BatchLogRepository) Proxy.newProxyInstance(
+                BatchLogRepository.class.getClassLoader(), new Class<?>[]{BatchLogRepository.class},
+                (proxy, method, args) -> "saveAll".equals(method.getName()) ? args[0] : null);
+        sink = new BatchLogSink(repository, new BatchLogSummaryRepository(jdbcTemplate, database),
+                new ResourcelessTransactionManager(), 10000, 200, 1000, overflowPolicy);
+        sink.afterPropertiesSet();
+        jobExecution = new JobExecution(new JobInstance(1L, "benchmarkJob"), 1L, new JobParameters());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        sink.destroy();
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void recordSkip() {
+        long id = item++;
+        sink.record(jobExecution, "benchmarkStep", "Item Skipped",
+                String.format("User: %s, Error: %s", "user" + id, "Duplicate entry"));
+    }
+}
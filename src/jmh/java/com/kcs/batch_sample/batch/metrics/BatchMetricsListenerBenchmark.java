@@ -0,0 +1,61 @@
+package com.kcs.batch_sample.batch.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link BatchMetricsListener} on a chunk step: the item callbacks of one chunk plus the
+ * chunk callbacks that record its timers, reported per item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchMetricsListenerBenchmark {
+
+    private static final int CHUNK_SIZE = 100;
+
+    private BatchMetricsListener listener;
+    private ChunkContext chunkContext;
+    private Chunk<Object> chunk;
+    private final Object item = new Object();
+
+    @Setup
+    public void setUp() {
+        listener = new BatchMetricsListener(new SimpleMeterRegistry());
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "benchmarkJob"), 1L, new JobParameters());
+        chunkContext = new ChunkContext(new StepContext(new StepExecution("benchmarkStep", jobExecution, 1L)));
+        chunk = new Chunk<>(List.of(item));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void chunkCallbacks() {
+        listener.beforeChunk(chunkContext);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            listener.beforeRead();
+            listener.afterRead(item);
+            listener.beforeProcess(item);
+            listener.afterProcess(item, item);
+        }
+        listener.beforeWrite(chunk);
+        listener.afterWrite(chunk);
+        listener.afterChunk(chunkContext);
+    }
+}
@@ -0,0 +1,66 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.dto.UserCreationDto;
+import com.kcs.batch_sample.dto.UserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a {@link UserCreationDto} payload: binding the whole document against streaming its
+ * {@code users} array through {@link JsonArrayItemReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadParsingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int users;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"users\":[");
+        for (int i = 0; i < users; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"username\":\"user").append(i)
+                    .append("\",\"email\":\"user").append(i).append("@example.com\"}");
+        }
+        payload = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UserCreationDto bindDocument() throws Exception {
+        return objectMapper.readValue(payload, UserCreationDto.class);
+    }
+
+    @Benchmark
+    public void streamArray(Blackhole blackhole) throws Exception {
+        JsonArrayItemReader<UserInfo> reader =
+                new JsonArrayItemReader<>(new ByteArrayResource(payload), "users", UserInfo.class, objectMapper);
+        reader.open(new ExecutionContext());
+        try {
+            UserInfo user;
+            while ((user = reader.read()) != null) {
+                blackhole.consume(user);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
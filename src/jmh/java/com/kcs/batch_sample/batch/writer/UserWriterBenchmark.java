@@ -0,0 +1,145 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import com.kcs.batch_sample.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one chunk of users to an embedded H2 database: a plain batch insert, an upsert of new
+ * users and an upsert re-running a chunk that is already stored, against the {@code repository.save}
+ * loop the JDBC writers replaced. Each chunk is written in its own
+ * transaction and takes its ids from the pooled table generator, as in a step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserWriterBenchmark {
+
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    private EmbeddedDatabase database;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private UserJdbcBatchWriter insertWriter;
+    private UserUpsertWriter upsertWriter;
+    private UserRepository userRepository;
+    private long batch;
+    private Chunk<User> storedChunk;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        // The entities create their tables, id_allocation included
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(database);
+        entityManagerFactory.setPackagesToScan("com.kcs.batch_sample.domain");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // JDBC batching as configured in application.yml, so repository.save gets the same batches
+        entityManagerFactory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create",
+                "hibernate.jdbc.batch_size", "100", "hibernate.order_inserts", "true"));
+        entityManagerFactory.afterPropertiesSet();
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory.getObject()));
+        jdbcTemplate = new JdbcTemplate(database);
+
+        PooledIdAllocator idAllocator = new PooledIdAllocator(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject()));
+        userRepository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(
+                entityManagerFactory.getObject())).getRepository(UserRepository.class);
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(database);
+        UserIdResolver userIdResolver = new UserIdResolver(namedParameterJdbcTemplate, new SimpleMeterRegistry(), 100000);
+        insertWriter = new UserJdbcBatchWriter(jdbcTemplate, idAllocator, userIdResolver);
+        upsertWriter = new UserUpsertWriter(jdbcTemplate, namedParameterJdbcTemplate, idAllocator, userIdResolver, database);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearUsers() throws Exception {
+        // Not TRUNCATE, which H2 refuses on a table board references
+        jdbcTemplate.update("DELETE FROM users");
+        storedChunk = newChunk("stored");
+        write(insertWriter, storedChunk);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.destroy();
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void batchInsert() {
+        write(insertWriter, newChunk("insert"));
+    }
+
+    @Benchmark
+    public void repositorySave() {
+        Chunk<User> chunk = newChunk("save");
+        write(users -> {
+            for (User user : users) {
+                userRepository.save(user);
+            }
+        }, chunk);
+    }
+
+    @Benchmark
+    public void upsertNewUsers() {
+        write(upsertWriter, newChunk("upsert"));
+    }
+
+    @Benchmark
+    public void upsertUnchangedUsers() {
+        write(upsertWriter, storedChunk);
+    }
+
+    private void write(ItemWriter<User> writer, Chunk<User> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(chunk);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Chunk<User> newChunk(String prefix) {
+        long chunkId = batch++;
+        Chunk<User> chunk = new Chunk<>();
+        for (int i = 0; i < chunkSize; i++) {
+            String username = prefix + chunkId + "_" + i;
+            chunk.add(User.builder().username(username).email(username + "@example.com").build());
+        }
+        return chunk;
+    }
+}
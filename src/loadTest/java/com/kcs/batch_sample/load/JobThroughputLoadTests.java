@@ -0,0 +1,316 @@
+package com.kcs.batch_sample.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.load.LoadTestReport.ScenarioResult;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Launches every job endpoint with synthetic payloads against an embedded MySQL-mode H2 database and
+ * reports items per second, launch latency, peak heap and database round-trips per scenario and size.
+ * <p>
+ * Sizes, runs per size and the report file come from the {@code loadTest.sizes},
+ * {@code loadTest.runs} and {@code loadTest.reportFile} system properties. Launches are asynchronous:
+ * the launch latency is the time until the endpoint answered 202, throughput is measured from the
+ * request until the execution finished. The users and boards tables are emptied before each run.
+ * <p>
+ * As a baseline each scenario is also launched {@code loadTest.syncLaunches} times synchronously with a
+ * single record, reported as {@code <scenario>_SYNC}: its launch latency is the whole request, the fixed
+ * cost of one launch and run that the asynchronous launch latency is compared against.
+ * <p>
+ * The partitioned email update is also swept over every gridSize from 1 to
+ * {@code app.batch.partition.pool-size}, reported as {@code EMAIL_UPDATE_PARTITIONED_GRID_<n>}, with
+ * the speedup of each grid size over a single partition logged next to the linear one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class JobThroughputLoadTests {
+
+    private static final List<Integer> SIZES = Arrays.stream(System.getProperty("loadTest.sizes", "10000").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .toList();
+    private static final int RUNS = Integer.getInteger("loadTest.runs", 3);
+    private static final Path REPORT_FILE = Path.of(System.getProperty("loadTest.reportFile", "build/reports/load-test/results.json"));
+    private static final int SYNC_LAUNCHES = Integer.getInteger("loadTest.syncLaunches", 20);
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(JobThroughputLoadTests.class);
+    private static final LoadTestReport report = new LoadTestReport();
+
+    enum Scenario {
+        RUN_JOB1("/api/v1/generic/run-job1", SyntheticPayloads::users, 1),
+        RUN_JOB3("/api/v1/generic/run-job3", SyntheticPayloads::users, 1),
+        PROCESS_USER_AND_BOARDS("/api/v1/generic/process-user-and-boards", SyntheticPayloads::usersAndBoards, 2),
+        INDIVIDUAL_PROCESSING("/api/v1/job/individual-processing", SyntheticPayloads::users, 1),
+        // Updates users already stored, the table is seeded instead of sending a payload
+        EMAIL_UPDATE("/api/v1/job/run-email-update-job", null, 1),
+        // Same update split into user_id ranges, app.batch.partition.grid-size of them
+        EMAIL_UPDATE_PARTITIONED("/api/v1/job/run-email-update-job/partitioned", null, 1),
+        // Same update as one UPDATE statement per user_id range, without reading the users
+        EMAIL_UPDATE_SET_BASED("/api/v1/job/run-email-update-job/set-based", null, 1);
+
+        private final String path;
+        private final BiFunction<String, Integer, byte[]> payload;
+        private final int itemsPerRecord;
+
+        Scenario(String path, BiFunction<String, Integer, byte[]> payload, int itemsPerRecord) {
+            this.path = path;
+            this.payload = payload;
+            this.itemsPerRecord = itemsPerRecord;
+        }
+    }
+
+    @TestConfiguration
+    static class RoundTripCountingConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RoundTripCountingDataSource)
+                            ? new RoundTripCountingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserIdResolver userIdResolver;
+
+    @Value("${app.batch.partition.pool-size:8}")
+    private int partitionPoolSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static Stream<Arguments> scenarios() {
+        return SIZES.stream().flatMap(size -> Arrays.stream(Scenario.values()).map(scenario -> Arguments.of(scenario, size)));
+    }
+
+    static Stream<Integer> sizes() {
+        return SIZES.stream();
+    }
+
+    @AfterAll
+    static void writeReport() throws Exception {
+        report.write(REPORT_FILE);
+    }
+
+    @ParameterizedTest(name = "{0} x{1}")
+    @MethodSource("scenarios")
+    void measure(Scenario scenario, int size) throws Exception {
+        ScenarioResult result = measureRuns(scenario.name(), scenario, size, payload -> launchRequest(scenario, payload, true));
+        report.add(result);
+        assertThat(result.status()).isEqualTo(BatchStatus.COMPLETED.name());
+    }
+
+    @ParameterizedTest(name = "EMAIL_UPDATE_PARTITIONED x{0} by grid size")
+    @MethodSource("sizes")
+    void measurePartitionScaling(int size) throws Exception {
+        Scenario scenario = Scenario.EMAIL_UPDATE_PARTITIONED;
+        // Unreported, so the single partition baseline is not measured on a cold JVM
+        measureRuns(scenario.name(), scenario, size, payload -> launchRequest(scenario, payload, true));
+        double singlePartition = 0;
+        for (int gridSize = 1; gridSize <= partitionPoolSize; gridSize++) {
+            String partitions = String.valueOf(gridSize);
+            ScenarioResult result = measureRuns(scenario.name() + "_GRID_" + gridSize, scenario, size,
+                    payload -> launchRequest(scenario, payload, true).param("gridSize", partitions));
+            report.add(result);
+            assertThat(result.status()).isEqualTo(BatchStatus.COMPLETED.name());
+            if (gridSize == 1) {
+                singlePartition = result.itemsPerSecond();
+            }
+            log.info("{} x{} with {} partitions: {}x the throughput of one partition, linear would be {}x",
+                    scenario.name(), size, gridSize, Math.round(result.itemsPerSecond() / singlePartition * 100) / 100.0, gridSize);
+        }
+    }
+
+    private ScenarioResult measureRuns(String name, Scenario scenario, int size,
+                                       Function<byte[], MockHttpServletRequestBuilder> launchRequest) throws Exception {
+        RoundTripCountingDataSource roundTrips = (RoundTripCountingDataSource) dataSource;
+        List<Double> launchMillis = new ArrayList<>(RUNS);
+        long totalNanos = 0;
+        long totalRoundTrips = 0;
+        long peakHeap = 0;
+        BatchStatus status = BatchStatus.COMPLETED;
+
+        for (int run = 0; run < RUNS; run++) {
+            byte[] payload = prepare(scenario, size, "u" + size + "r" + run + "n");
+            System.gc();
+            resetHeapPeak();
+            long roundTripsBefore = roundTrips.getRoundTrips();
+            long start = System.nanoTime();
+
+            MvcResult result = mockMvc.perform(launchRequest.apply(payload)).andReturn();
+            launchMillis.add((System.nanoTime() - start) / 1_000_000.0);
+            assertThat(result.getResponse().getStatus()).isEqualTo(202);
+            long executionId = objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("executionId").asLong();
+            JobExecution jobExecution = awaitCompletion(roundTrips, executionId);
+
+            totalNanos += System.nanoTime() - start;
+            totalRoundTrips += roundTrips.getRoundTrips() - roundTripsBefore;
+            peakHeap = Math.max(peakHeap, heapPeak());
+            if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+                status = jobExecution.getStatus();
+            }
+        }
+
+        long items = (long) size * scenario.itemsPerRecord * RUNS;
+        return new ScenarioResult(name, size, RUNS, status.name(),
+                items / (totalNanos / 1_000_000_000.0),
+                LoadTestReport.percentile(launchMillis, 50),
+                LoadTestReport.percentile(launchMillis, 99),
+                peakHeap,
+                totalRoundTrips / RUNS);
+    }
+
+    @ParameterizedTest(name = "{0} synchronous")
+    @EnumSource(Scenario.class)
+    void measureSynchronousLaunch(Scenario scenario) throws Exception {
+        RoundTripCountingDataSource roundTrips = (RoundTripCountingDataSource) dataSource;
+        List<Double> launchMillis = new ArrayList<>(SYNC_LAUNCHES);
+        long totalNanos = 0;
+        long totalRoundTrips = 0;
+        long peakHeap = 0;
+        BatchStatus status = BatchStatus.COMPLETED;
+
+        for (int launch = 0; launch < SYNC_LAUNCHES; launch++) {
+            byte[] payload = prepare(scenario, 1, "s" + launch + "n");
+            resetHeapPeak();
+            long roundTripsBefore = roundTrips.getRoundTrips();
+            long start = System.nanoTime();
+
+            MvcResult result = mockMvc.perform(launchRequest(scenario, payload, false)).andReturn();
+            long nanos = System.nanoTime() - start;
+            launchMillis.add(nanos / 1_000_000.0);
+            totalNanos += nanos;
+            totalRoundTrips += roundTrips.getRoundTrips() - roundTripsBefore;
+            peakHeap = Math.max(peakHeap, heapPeak());
+            assertThat(result.getResponse().getStatus()).isEqualTo(200);
+            // "... completed with status: COMPLETED"
+            String message = result.getResponse().getContentAsString();
+            BatchStatus launchStatus = BatchStatus.valueOf(message.substring(message.lastIndexOf(' ') + 1));
+            if (launchStatus != BatchStatus.COMPLETED) {
+                status = launchStatus;
+            }
+        }
+
+        long items = (long) scenario.itemsPerRecord * SYNC_LAUNCHES;
+        report.add(new ScenarioResult(scenario.name() + "_SYNC", 1, SYNC_LAUNCHES, status.name(),
+                items / (totalNanos / 1_000_000_000.0),
+                LoadTestReport.percentile(launchMillis, 50),
+                LoadTestReport.percentile(launchMillis, 99),
+                peakHeap,
+                totalRoundTrips / SYNC_LAUNCHES));
+        assertThat(status).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    private byte[] prepare(Scenario scenario, int size, String usernamePrefix) {
+        RoundTripCountingDataSource roundTrips = (RoundTripCountingDataSource) dataSource;
+        return roundTrips.uncounted(() -> {
+            jdbcTemplate.update("DELETE FROM board");
+            jdbcTemplate.update("DELETE FROM users");
+            userIdResolver.clear();
+            if (scenario.payload != null) {
+                return scenario.payload.apply(usernamePrefix, size);
+            }
+            List<Object[]> users = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                users.add(new Object[]{i, usernamePrefix + i, usernamePrefix + i + "@example.com"});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)", users);
+            return null;
+        });
+    }
+
+    private static MockHttpServletRequestBuilder launchRequest(Scenario scenario, byte[] payload, boolean async) {
+        if (payload == null) {
+            return get(scenario.path).param("async", String.valueOf(async));
+        }
+        return post(scenario.path)
+                .param("async", String.valueOf(async))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+    }
+
+    private JobExecution awaitCompletion(RoundTripCountingDataSource roundTrips, long executionId) throws InterruptedException {
+        while (true) {
+            JobExecution jobExecution = roundTrips.uncounted(() -> jobExplorer.getJobExecution(executionId));
+            if (!jobExecution.isRunning()) {
+                return jobExecution;
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
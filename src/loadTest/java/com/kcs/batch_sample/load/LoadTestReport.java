@@ -0,0 +1,63 @@
+package com.kcs.batch_sample.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects one result per scenario and size and writes them as a single JSON document, so reports
+ * of different runs can be compared field by field.
+ */
+class LoadTestReport {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestReport.class);
+
+    record ScenarioResult(String scenario, int items, int runs, String status, double itemsPerSecond,
+                          double launchLatencyP50Millis, double launchLatencyP99Millis,
+                          long peakHeapBytes, long roundTrips) {
+    }
+
+    record Report(Instant generatedAt, String javaVersion, int availableProcessors, long maxHeapBytes,
+                  List<ScenarioResult> results) {
+    }
+
+    private final List<ScenarioResult> results = new ArrayList<>();
+
+    void add(ScenarioResult result) {
+        results.add(result);
+        log.info("{} x{}: {} items/s, launch p50 {} ms p99 {} ms, peak heap {} MB, {} round-trips per run, {}",
+                result.scenario(), result.items(), Math.round(result.itemsPerSecond()),
+                result.launchLatencyP50Millis(), result.launchLatencyP99Millis(),
+                result.peakHeapBytes() / (1024 * 1024), result.roundTrips(), result.status());
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Report report = new Report(Instant.now(), System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory(), results);
+        new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), report);
+        log.info("Load test report written to {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Nearest-rank percentile.
+     */
+    static double percentile(List<Double> values, double percentile) {
+        List<Double> sorted = values.stream().sorted().toList();
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.kcs.batch_sample.load;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Counts the database round-trips made through the wrapped data source: every statement execution,
+ * a whole JDBC batch as one, and every commit or rollback. Work done inside {@link #uncounted} is
+ * left out.
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_ROUND_TRIPS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> CONNECTION_ROUND_TRIPS = Set.of("commit", "rollback");
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final ThreadLocal<Boolean> suspended = ThreadLocal.withInitial(() -> false);
+
+    public RoundTripCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    public <T> T uncounted(Supplier<T> work) {
+        suspended.set(true);
+        try {
+            return work.get();
+        } finally {
+            suspended.set(false);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, super.getConnection(username, password));
+    }
+
+    private <T> T wrap(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (CONNECTION_ROUND_TRIPS.contains(method.getName()) || STATEMENT_ROUND_TRIPS.contains(method.getName())) {
+                count();
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return wrap(statementType(method), statement);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Statement> statementType(Method method) {
+        return (Class<Statement>) method.getReturnType();
+    }
+
+    private void count() {
+        if (!suspended.get()) {
+            roundTrips.incrementAndGet();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
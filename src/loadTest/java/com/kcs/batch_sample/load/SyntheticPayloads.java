@@ -0,0 +1,46 @@
+package com.kcs.batch_sample.load;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request bodies of the shape of {@code UserCreationDto} and {@code UserBoardProcessingDto}, with
+ * usernames made unique per run by {@code prefix}.
+ */
+final class SyntheticPayloads {
+
+    private SyntheticPayloads() {
+    }
+
+    static byte[] users(String prefix, int count) {
+        StringBuilder json = new StringBuilder(count * 64).append("{\"users\":");
+        appendUsers(json, prefix, count);
+        return bytes(json.append('}'));
+    }
+
+    static byte[] usersAndBoards(String prefix, int count) {
+        StringBuilder json = new StringBuilder(count * 128).append("{\"users\":");
+        appendUsers(json, prefix, count);
+        json.append(",\"boards\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"title\":\"title").append(i)
+                    .append("\",\"content\":\"content of board ").append(i)
+                    .append("\",\"userUsername\":\"").append(prefix).append(i).append("\"}");
+        }
+        return bytes(json.append("]}"));
+    }
+
+    private static void appendUsers(StringBuilder json, String prefix, int count) {
+        json.append('[');
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"username\":\"").append(prefix).append(i)
+                    .append("\",\"email\":\"").append(prefix).append(i).append("@example.com\"}");
+        }
+        json.append(']');
+    }
+
+    private static byte[] bytes(CharSequence json) {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
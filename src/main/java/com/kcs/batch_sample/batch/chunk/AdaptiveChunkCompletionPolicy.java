@@ -0,0 +1,108 @@
+package com.kcs.batch_sample.batch.chunk;
+
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Chunk size policy that resizes chunks towards a target transaction time.
+ * <p>
+ * After every committed chunk the per-item cost of that chunk is measured and the next chunk is sized so it
+ * would take {@code targetMillis}, moving at most by a factor of two per chunk and staying within
+ * [{@code minSize}, {@code maxSize}]. A rolled back chunk halves the size and blocks growth for the next
+ * {@code cooldownChunks} chunks.
+ * <p>
+ * Must be registered as a ChunkListener on the step it sizes, and must not be shared between step
+ * executions; define it in step scope. {@link #fixed(int)} gives a policy that never resizes.
+ */
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends SimpleCompletionPolicy implements ChunkListener {
+
+    private static final int COOLDOWN_CHUNKS = 3;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetMillis;
+    private final BatchMetricsListener batchMetricsListener;
+    private final LongSupplier nanoClock;
+
+    private long chunkStart;
+    private long readCountAtStart;
+    private int cooldown;
+
+    public AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, long targetMillis,
+                                         BatchMetricsListener batchMetricsListener) {
+        this(initialSize, minSize, maxSize, targetMillis, batchMetricsListener, System::nanoTime);
+    }
+
+    // Takes the clock timing the chunks, so tests can decide how long a chunk took
+    AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, long targetMillis,
+                                  BatchMetricsListener batchMetricsListener, LongSupplier nanoClock) {
+        super(clamp(initialSize, minSize, maxSize));
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid chunk size bounds [" + minSize + ", " + maxSize + "]");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetMillis = targetMillis;
+        this.batchMetricsListener = batchMetricsListener;
+        this.nanoClock = nanoClock;
+    }
+
+    public static AdaptiveChunkCompletionPolicy fixed(int chunkSize, BatchMetricsListener batchMetricsListener) {
+        return new AdaptiveChunkCompletionPolicy(chunkSize, chunkSize, chunkSize, 0, batchMetricsListener);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        chunkStart = nanoClock.getAsLong();
+        readCountAtStart = stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long items = stepExecution.getReadCount() + stepExecution.getReadSkipCount() - readCountAtStart;
+        if (items > 0 && minSize < maxSize) {
+            double elapsedMillis = Math.max(0.001, (nanoClock.getAsLong() - chunkStart) / 1_000_000.0);
+            double ideal = targetMillis / (elapsedMillis / items);
+            int current = getChunkSize();
+            long next = Math.round(Math.min(current * 2.0, Math.max(current / 2.0, ideal)));
+            if (cooldown > 0) {
+                cooldown--;
+                next = Math.min(next, current);
+            }
+            resize((int) Math.min(Integer.MAX_VALUE, next));
+        }
+        publish(context);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        if (minSize < maxSize) {
+            cooldown = COOLDOWN_CHUNKS;
+            resize(getChunkSize() / 2);
+            log.debug("Chunk rolled back, chunk size reduced to {}", getChunkSize());
+        }
+        publish(context);
+    }
+
+    private void resize(int size) {
+        setChunkSize(clamp(size, minSize, maxSize));
+    }
+
+    private void publish(ChunkContext context) {
+        batchMetricsListener.recordChunkSize(context.getStepContext().getJobName(),
+                context.getStepContext().getStepName(), getChunkSize());
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,70 @@
+package com.kcs.batch_sample.batch.compensation;
+
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Makes a multi-step import all-or-nothing when it runs with {@code atomic=true}: if the job fails, the rows
+ * its committed chunks inserted are deleted again and the execution is marked ABANDONED, since restarting
+ * it would resume from a step whose input rows are gone. A failure before any row was inserted, such as in
+ * validation or with only existing users updated by an upsert, leaves the execution FAILED and restartable.
+ * Without the parameter the committed chunks stay and the job can be restarted.
+ */
+@Slf4j
+public class ImportCompensationListener implements JobExecutionListener {
+
+    public static final String ATOMIC_PARAMETER = "atomic";
+
+    private final ImportJournal importJournal;
+    private final BatchLogSink batchLogSink;
+    private final List<JournaledTable> tables;
+
+    /**
+     * @param tables the journaled tables in delete order, children before parents
+     */
+    public ImportCompensationListener(ImportJournal importJournal, BatchLogSink batchLogSink, List<JournaledTable> tables) {
+        this.importJournal = importJournal;
+        this.batchLogSink = batchLogSink;
+        this.tables = tables;
+    }
+
+    public static boolean isAtomic(JobExecution jobExecution) {
+        JobParameter<?> atomic = jobExecution.getJobParameters().getParameter(ATOMIC_PARAMETER);
+        return atomic != null && Boolean.TRUE.equals(atomic.getValue());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String payloadId = jobExecution.getJobParameters().getString(PayloadStore.PAYLOAD_ID_PARAMETER);
+        if (payloadId == null || !isAtomic(jobExecution)) {
+            return;
+        }
+        try {
+            if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+                importJournal.delete(payloadId, tables);
+            } else if (jobExecution.getStatus() == BatchStatus.FAILED) {
+                long deleted = importJournal.compensate(payloadId, tables);
+                if (deleted == 0) {
+                    return;
+                }
+                jobExecution.setStatus(BatchStatus.ABANDONED);
+                jobExecution.setExitStatus(jobExecution.getExitStatus().and(new ExitStatus("COMPENSATED")));
+                batchLogSink.record(jobExecution, null, "Import Compensated",
+                        String.format("Deleted %d rows inserted by the failed import", deleted));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not compensate the import of payload {}", payloadId, e);
+            batchLogSink.record(jobExecution, null, "Compensation Failed", e.getMessage());
+        }
+    }
+}
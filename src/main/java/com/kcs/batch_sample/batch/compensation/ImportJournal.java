@@ -0,0 +1,117 @@
+package com.kcs.batch_sample.batch.compensation;
+
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the ids of the rows an import inserted, so that an all-or-nothing import can delete them
+ * again after its later steps failed.
+ * <p>
+ * Ids are appended to a per-payload file once a chunk is written and before it commits, so every
+ * committed row is in the journal. Ids of a chunk that rolled back afterwards are harmless: deleting
+ * them matches no row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJournal {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final PayloadStore payloadStore;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final UserIdResolver userIdResolver;
+
+    /**
+     * A table rows were inserted into, identified by its primary key column.
+     */
+    public record JournaledTable(String table, String keyColumn) {
+    }
+
+    public void append(String payloadId, JournaledTable table, List<Long> ids) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.size() * Long.BYTES);
+        for (Long id : ids) {
+            buffer.putLong(id);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(payloadStore.journal(payloadId, table.table()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Deletes the journaled rows, table by table in the given order (children before parents),
+     * in one transaction, then removes the journals.
+     *
+     * @return the number of rows deleted
+     */
+    public long compensate(String payloadId, List<JournaledTable> tables) throws IOException {
+        List<List<Long>> idsPerTable = new ArrayList<>(tables.size());
+        for (JournaledTable table : tables) {
+            idsPerTable.add(readIds(payloadStore.journal(payloadId, table.table())));
+        }
+
+        Long deleted = new TransactionTemplate(transactionManager).execute(status -> {
+            long rows = 0;
+            for (int t = 0; t < tables.size(); t++) {
+                JournaledTable table = tables.get(t);
+                List<Long> ids = idsPerTable.get(t);
+                String sql = "DELETE FROM " + table.table() + " WHERE " + table.keyColumn() + " IN (:ids)";
+                for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+                    List<Long> batch = ids.subList(from, Math.min(ids.size(), from + DELETE_BATCH_SIZE));
+                    rows += namedParameterJdbcTemplate.update(sql, Map.of("ids", batch));
+                }
+            }
+            return rows;
+        });
+        // Ids of the deleted users may still be cached
+        userIdResolver.clear();
+        delete(payloadId, tables);
+        log.info("Compensated import of payload {}: {} rows deleted", payloadId, deleted);
+        return deleted;
+    }
+
+    public void delete(String payloadId, List<JournaledTable> tables) throws IOException {
+        for (JournaledTable table : tables) {
+            Files.deleteIfExists(payloadStore.journal(payloadId, table.table()));
+        }
+    }
+
+    private static List<Long> readIds(Path journal) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.exists(journal)) {
+            return ids;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            while (true) {
+                ids.add(in.readLong());
+            }
+        } catch (EOFException e) {
+            return ids;
+        }
+    }
+}
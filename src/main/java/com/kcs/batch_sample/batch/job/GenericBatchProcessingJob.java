@@ -1,33 +1,63 @@
 package com.kcs.batch_sample.batch.job;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.kcs.batch_sample.domain.BatchLog;
-import com.kcs.batch_sample.repository.BatchLogRepository;
-import lombok.RequiredArgsConstructor;
+import com.kcs.batch_sample.batch.staging.PayloadCleanupListener;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Future;
 
 @Configuration
-@RequiredArgsConstructor
 @Slf4j
 public class GenericBatchProcessingJob<I, O> {
 
+    /**
+     * Exit code of a step, and so of its job, that completed after skipping items within its skip limit.
+     */
+    public static final ExitStatus COMPLETED_WITH_SKIPS = new ExitStatus("COMPLETED_WITH_SKIPS");
+
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
-    private final BatchLogRepository batchLogRepository;
+    private final BatchLogSink batchLogSink;
+    private final BatchMetricsListener batchMetricsListener;
     private final ObjectMapper objectMapper;
+    private final PayloadCleanupListener payloadCleanupListener;
+    private final TaskExecutor processingTaskExecutor;
+
+    public GenericBatchProcessingJob(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     BatchLogSink batchLogSink,
+                                     BatchMetricsListener batchMetricsListener,
+                                     ObjectMapper objectMapper,
+                                     PayloadCleanupListener payloadCleanupListener,
+                                     @Qualifier("processingTaskExecutor") TaskExecutor processingTaskExecutor) {
+        this.jobRepository = jobRepository;
+        this.transactionManager = transactionManager;
+        this.batchLogSink = batchLogSink;
+        this.batchMetricsListener = batchMetricsListener;
+        this.objectMapper = objectMapper;
+        this.payloadCleanupListener = payloadCleanupListener;
+        this.processingTaskExecutor = processingTaskExecutor;
+    }
 
     public Job createJob(
             ItemReader<I> reader,
@@ -36,70 +66,194 @@ public class GenericBatchProcessingJob<I, O> {
             String jobName,
             String stepName,
             int chunkSize) {
-        return new JobBuilder(jobName, jobRepository)
-                .start(createStep(reader, processor, writer, stepName, chunkSize))
+        return createJob(reader, processor, writer, jobName, stepName, chunkSize, false);
+    }
+
+    /**
+     * @param parallel when true the processor runs on the processing executor through an
+     *                 {@link AsyncItemProcessor}; reading and writing stay on the step thread,
+     *                 so neither the reader nor the writer has to be thread-safe.
+     */
+    public Job createJob(
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String jobName,
+            String stepName,
+            int chunkSize,
+            boolean parallel) {
+        return createJob(reader, processor, writer, jobName, stepName, new SimpleCompletionPolicy(chunkSize), parallel);
+    }
+
+    /**
+     * Variant for job beans built once at startup: pass a step-scoped policy to size chunks per execution,
+     * e.g. from a job parameter. A policy that is also a {@link ChunkListener} is registered on the step.
+     */
+    public Job createJob(
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String jobName,
+            String stepName,
+            CompletionPolicy completionPolicy,
+            boolean parallel) {
+        return createJob(null, reader, processor, writer, jobName, stepName, completionPolicy, parallel);
+    }
+
+    /**
+     * @param validationStep runs before the chunk-oriented step, e.g. to drop invalid records from the
+     *                       payload, or null to start with the chunk-oriented step
+     */
+    public Job createJob(
+            Step validationStep,
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String jobName,
+            String stepName,
+            CompletionPolicy completionPolicy,
+            boolean parallel) {
+        return createJob(validationStep, reader, processor, writer, jobName, stepName, completionPolicy, parallel, null, 0);
+    }
+
+    /**
+     * @param skippable items whose write fails with this exception are skipped, see the skipping
+     *                  {@link #createStep}; null for a step that fails on the first error
+     */
+    public Job createJob(
+            Step validationStep,
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String jobName,
+            String stepName,
+            CompletionPolicy completionPolicy,
+            boolean parallel,
+            Class<? extends Throwable> skippable,
+            int skipLimit) {
+        Step step = parallel
+                ? createParallelStep(reader, processor, writer, stepName, completionPolicy, skippable, skipLimit)
+                : createStep(reader, processor, writer, stepName, completionPolicy, skippable, skipLimit);
+        JobBuilder jobBuilder = new JobBuilder(jobName, jobRepository);
+        SimpleJobBuilder simpleJobBuilder = validationStep != null
+                ? jobBuilder.start(validationStep).next(step)
+                : jobBuilder.start(step);
+        return simpleJobBuilder
+                .listener(payloadCleanupListener)
+                .listener(batchLogSink)
                 .build();
     }
 
-    private Step createStep(
+    /**
+     * The chunk-oriented step of {@link #createJob}, for jobs that chain several such steps.
+     */
+    public Step createStep(
             ItemReader<I> reader,
             ItemProcessor<I, O> processor,
             ItemWriter<O> writer,
             String stepName,
-            int chunkSize) {
-        BatchLogStepListener<I, O> batchLogStepListener = new BatchLogStepListener<>(stepName);
-        return new StepBuilder(stepName, jobRepository)
-                .<I, O>chunk(chunkSize, transactionManager)
+            CompletionPolicy completionPolicy) {
+        return createStep(reader, processor, writer, stepName, completionPolicy, null, 0);
+    }
+
+    /**
+     * Variant of {@link #createStep} for writers that can fail on single items: a chunk failing with
+     * {@code skippable} is rolled back and written again item by item, and the failing items are skipped
+     * and logged, up to {@code skipLimit} of them. The processor is not run again for the retry, so
+     * processors filtering repeats see each item once.
+     */
+    public Step createStep(
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String stepName,
+            CompletionPolicy completionPolicy,
+            Class<? extends Throwable> skippable,
+            int skipLimit) {
+        return withBatchLogListener(skipping(new StepBuilder(stepName, jobRepository)
+                .<I, O>chunk(completionPolicy, transactionManager)
                 .reader(reader)
                 .processor(processor)
-                .writer(writer)
+                .writer(writer), skippable, skipLimit), stepName, completionPolicy);
+    }
+
+    private Step createParallelStep(
+            ItemReader<I> reader,
+            ItemProcessor<I, O> processor,
+            ItemWriter<O> writer,
+            String stepName,
+            CompletionPolicy completionPolicy,
+            Class<? extends Throwable> skippable,
+            int skipLimit) {
+        AsyncItemProcessor<I, O> asyncProcessor = new AsyncItemProcessor<>();
+        asyncProcessor.setDelegate(processor);
+        asyncProcessor.setTaskExecutor(processingTaskExecutor);
+
+        AsyncItemWriter<O> asyncWriter = new AsyncItemWriter<>();
+        asyncWriter.setDelegate(writer);
+
+        return withBatchLogListener(skipping(new StepBuilder(stepName, jobRepository)
+                .<I, Future<O>>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .processor(asyncProcessor)
+                .writer(asyncWriter), skippable, skipLimit), stepName, completionPolicy);
+    }
+
+    private static SimpleStepBuilder<?, ?> skipping(SimpleStepBuilder<?, ?> builder,
+                                                    Class<? extends Throwable> skippable, int skipLimit) {
+        if (skippable == null) {
+            return builder;
+        }
+        // The retried chunk reuses the processed items instead of processing them again
+        return builder.faultTolerant()
+                .skip(skippable)
+                .skipLimit(skipLimit)
+                .processorNonTransactional();
+    }
+
+    private Step withBatchLogListener(SimpleStepBuilder<?, ?> builder, String stepName, CompletionPolicy completionPolicy) {
+        // Adaptive policies measure the chunks they size
+        if (completionPolicy instanceof ChunkListener chunkListener) {
+            builder.listener(chunkListener);
+        }
+        BatchLogStepListener batchLogStepListener = new BatchLogStepListener(stepName);
+        return batchMetricsListener.register(builder)
                 .listener((StepExecutionListener) batchLogStepListener)
                 .listener((ChunkListener) batchLogStepListener)
-                .listener((SkipListener<I, O>) batchLogStepListener)
+                .listener((SkipListener<Object, Object>) batchLogStepListener)
                 .build();
     }
 
-    private class BatchLogStepListener<I, O> implements StepExecutionListener, ChunkListener, SkipListener<I, O> {
-        private final AtomicInteger totalData = new AtomicInteger(0);
-        private final AtomicInteger successData = new AtomicInteger(0);
-        private final AtomicInteger failureData = new AtomicInteger(0);
+    /**
+     * Totals are taken from the StepExecution, which the step updates once per committed chunk,
+     * so they stay correct however many threads take part in processing.
+     */
+    private class BatchLogStepListener implements StepExecutionListener, ChunkListener, SkipListener<Object, Object> {
         private final String stepName;
 
         public BatchLogStepListener(String stepName) {
             this.stepName = stepName;
         }
 
-        @Override
-        public void beforeStep(StepExecution stepExecution) {
-            totalData.set(0);
-            successData.set(0);
-            failureData.set(0);
-        }
-
         @Override
         public ExitStatus afterStep(StepExecution stepExecution) {
+            long failures = stepExecution.getProcessSkipCount() + stepExecution.getWriteSkipCount();
             saveBatchLog(stepExecution.getJobExecution(), "Step Finished",
-                    String.format("Total: %d, Success: %d, Failure: %d",
-                            totalData.get(), successData.get(), failureData.get()));
+                    String.format("Total: %d, Success: %d, Filtered: %d, Failure: %d",
+                            stepExecution.getReadCount(), stepExecution.getWriteCount(),
+                            stepExecution.getFilterCount(), failures));
+            batchLogSink.flush();
 
-            if (failureData.get() > 0) {
-                return ExitStatus.FAILED;
+            // A custom exit code outranks FAILED when combined, so a failed step keeps its own
+            if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+                return stepExecution.getExitStatus();
+            }
+            if (failures > 0) {
+                return COMPLETED_WITH_SKIPS.addExitDescription(failures + " items skipped");
             }
             return ExitStatus.COMPLETED;
         }
 
-        @Override
-        public void beforeChunk(ChunkContext context) {
-            // Do nothing
-        }
-
-        @Override
-        public void afterChunk(ChunkContext context) {
-            int itemCount = (int) context.getStepContext().getStepExecution().getReadCount();
-            totalData.set(itemCount);
-            successData.set(itemCount - failureData.get());
-        }
-
         @Override
         public void afterChunkError(ChunkContext context) {
             Throwable exception = (Throwable) context.getAttribute("exception");
@@ -108,25 +262,19 @@ public class GenericBatchProcessingJob<I, O> {
         }
 
         @Override
-        public void onSkipInProcess(I item, Throwable t) {
-            failureData.incrementAndGet();
+        public void onSkipInProcess(Object item, Throwable t) {
+            saveBatchLog(null, "Item Skipped",
+                    String.format("Item: %s, Error: %s", item.toString(), t.getMessage()));
+        }
+
+        @Override
+        public void onSkipInWrite(Object item, Throwable t) {
             saveBatchLog(null, "Item Skipped",
                     String.format("Item: %s, Error: %s", item.toString(), t.getMessage()));
         }
 
         private void saveBatchLog(JobExecution jobExecution, String message, String details) {
-            try {
-                BatchLog batchLog = BatchLog.builder()
-                        .jobName(jobExecution != null ? jobExecution.getJobInstance().getJobName() : "Unknown Job")
-                        .stepName(stepName)
-                        .errorMessage(message)
-                        .itemData(details)
-                        .createdAt(LocalDateTime.now())
-                        .build();
-                batchLogRepository.save(batchLog);
-            } catch (Exception e) {
-                log.error("Error saving batch log", e);
-            }
+            batchLogSink.record(jobExecution, stepName, message, details);
         }
     }
 }
@@ -0,0 +1,127 @@
+package com.kcs.batch_sample.batch.job;
+
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.batch.tasklet.MetadataPurgeTasklet;
+import com.kcs.batch_sample.batch.tasklet.TablePurgeTasklet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Removes what the other jobs leave behind once it is older than the retention: the Spring Batch
+ * metadata of finished executions, batch_log rows and files in the staging directory. The cutoff is
+ * the {@value #CUTOFF_PARAMETER} job parameter, so a restart deletes up to the same point in time.
+ * <p>
+ * Rows are deleted in batches of {@code batch-size}, one transaction each. The step write counts are
+ * the rows or files removed; the totals per table and the time taken are logged when the job finishes.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class HousekeepingJob {
+
+    public static final String CUTOFF_PARAMETER = "cutoff";
+    private static final String STAGED_FILES = "staged-files";
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final PayloadStore payloadStore;
+    private final BatchLogSink batchLogSink;
+    private final BatchMetricsListener batchMetricsListener;
+
+    @Value("${app.batch.housekeeping.batch-size:500}")
+    private int batchSize;
+
+    @Bean(name = "housekeepingPurgeJob")
+    public Job housekeepingPurgeJob() {
+        return new JobBuilder("housekeepingPurgeJob", jobRepository)
+                .start(purgeStep("purgeJobMetadataStep", metadataPurgeTasklet(null)))
+                .next(purgeStep("purgeBatchLogStep", batchLogPurgeTasklet(null)))
+                .next(purgeStep("purgeStagedFilesStep", stagedFilesPurgeTasklet(null)))
+                .listener(new HousekeepingReportListener())
+                .listener(batchLogSink)
+                .build();
+    }
+
+    private Step purgeStep(String stepName, Tasklet tasklet) {
+        return new StepBuilder(stepName, jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .listener((StepExecutionListener) batchMetricsListener)
+                .listener((ChunkListener) batchMetricsListener)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public MetadataPurgeTasklet metadataPurgeTasklet(@Value("#{jobParameters['cutoff']}") LocalDateTime cutoff) {
+        return new MetadataPurgeTasklet(jdbcTemplate, AbstractJdbcBatchMetadataDao.DEFAULT_TABLE_PREFIX, cutoff, batchSize);
+    }
+
+    @Bean
+    @StepScope
+    public TablePurgeTasklet batchLogPurgeTasklet(@Value("#{jobParameters['cutoff']}") LocalDateTime cutoff) {
+        return new TablePurgeTasklet(jdbcTemplate, "batch_log", "id", "created_at", cutoff, batchSize);
+    }
+
+    @Bean
+    @StepScope
+    public Tasklet stagedFilesPurgeTasklet(@Value("#{jobParameters['cutoff']}") LocalDateTime cutoff) {
+        return (contribution, chunkContext) -> {
+            int deleted = payloadStore.purge(cutoff.atZone(ZoneId.systemDefault()).toInstant());
+            contribution.incrementWriteCount(deleted);
+            chunkContext.getStepContext().getStepExecution().getExecutionContext()
+                    .putLong(MetadataPurgeTasklet.DELETED_KEY_PREFIX + STAGED_FILES, deleted);
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    private class HousekeepingReportListener implements JobExecutionListener {
+        @Override
+        public void afterJob(JobExecution jobExecution) {
+            Map<String, Long> deleted = new TreeMap<>();
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                stepExecution.getExecutionContext().entrySet().stream()
+                        .filter(entry -> entry.getKey().startsWith(MetadataPurgeTasklet.DELETED_KEY_PREFIX))
+                        .forEach(entry -> deleted.merge(entry.getKey().substring(MetadataPurgeTasklet.DELETED_KEY_PREFIX.length()),
+                                ((Number) entry.getValue()).longValue(), Long::sum));
+            }
+            StringJoiner details = new StringJoiner(", ");
+            deleted.forEach((table, count) -> details.add(table + ": " + count));
+            long millis = jobExecution.getStartTime() == null ? 0
+                    : Duration.between(jobExecution.getStartTime(), LocalDateTime.now()).toMillis();
+            details.add("took " + millis + " ms");
+
+            log.info("Housekeeping before {} {}: {}", jobExecution.getJobParameters().getLocalDateTime(CUTOFF_PARAMETER),
+                    jobExecution.getStatus(), details);
+            batchLogSink.record(jobExecution, "housekeepingPurgeJob", "Housekeeping Finished", details.toString());
+        }
+    }
+}
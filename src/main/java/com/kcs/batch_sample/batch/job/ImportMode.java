@@ -0,0 +1,18 @@
+package com.kcs.batch_sample.batch.job;
+
+/**
+ * How imported users are written, chosen per execution through the {@code mode} job parameter.
+ */
+public enum ImportMode {
+
+    /** Plain inserts; a user whose username already exists is skipped and logged, ending in COMPLETED_WITH_SKIPS. */
+    INSERT,
+    /** Insert or update keyed on username; rows that would not change are not written at all. */
+    UPSERT;
+
+    public static final String PARAMETER = "mode";
+
+    public static ImportMode of(String value) {
+        return value != null ? valueOf(value) : INSERT;
+    }
+}
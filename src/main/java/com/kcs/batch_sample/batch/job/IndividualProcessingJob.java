@@ -1,12 +1,15 @@
 package com.kcs.batch_sample.batch.job;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.batch.staging.PayloadCleanupListener;
+import com.kcs.batch_sample.batch.reader.JsonArrayItemReader;
+import com.kcs.batch_sample.batch.reader.PayloadReaderFactory;
+import com.kcs.batch_sample.batch.validation.PayloadValidationStepFactory;
+import com.kcs.batch_sample.batch.writer.BisectingItemWriter;
+import com.kcs.batch_sample.batch.writer.UserJdbcBatchWriter;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
 import com.kcs.batch_sample.domain.User;
 import com.kcs.batch_sample.dto.UserInfo;
-import com.kcs.batch_sample.repository.BatchLogRepository;
-import com.kcs.batch_sample.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
@@ -15,19 +18,16 @@ import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.Chunk;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipPolicy;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import java.util.Map;
 
 @Configuration
 @RequiredArgsConstructor
@@ -36,29 +36,44 @@ public class IndividualProcessingJob {
 
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
-    private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
-    private final BatchLogRepository batchLogRepository;
+    private final UserJdbcBatchWriter userJdbcBatchWriter;
+    private final BatchLogSink batchLogSink;
+    private final BatchMetricsListener batchMetricsListener;
+    private final PayloadReaderFactory payloadReaderFactory;
+    private final PayloadCleanupListener payloadCleanupListener;
+    private final PayloadValidationStepFactory payloadValidationStepFactory;
+    private final DataSource dataSource;
+
+    // Bad items no longer need chunk(1): processor failures are skipped by the fault-tolerant step and
+    // write failures are isolated by bisecting the chunk
+    @Value("${app.batch.individual.chunk-size:100}")
+    private int chunkSize;
+
+    // Shared by the step and the bisecting writer, so items isolated in either count against one limit
+    @Value("${app.batch.individual.skip-limit:" + Integer.MAX_VALUE + "}")
+    private int skipLimit;
 
     @Bean(name = "processIndividualJob")
     public Job processIndividualJob() throws Exception {
         return new JobBuilder("processIndividualJob", jobRepository)
-                .start(processIndividualStep())
-                .listener(new BatchLogJobListener())
+                .start(payloadValidationStepFactory.validationStep("validateIndividualUsersStep"))
+                .next(processIndividualStep())
+                .listener(payloadCleanupListener)
+                .listener(batchLogSink)
                 .build();
     }
 
     @Bean
     public Step processIndividualStep() throws Exception {
         BatchLogStepListener batchLogStepListener = new BatchLogStepListener();
-        return new StepBuilder("processIndividualStep", jobRepository)
-                .<UserInfo, User>chunk(1, transactionManager)
+        SkipPolicy skipPolicy = new LimitCheckingItemSkipPolicy(skipLimit, Map.of(RuntimeException.class, true));
+        return batchMetricsListener.register(new StepBuilder("processIndividualStep", jobRepository)
+                .<UserInfo, User>chunk(chunkSize, transactionManager)
                 .reader(userIndividualReader(null))
                 .processor(userIndividualProcessor())
-                .writer(userIndividualWriter())
+                .writer(new BisectingItemWriter<>(userJdbcBatchWriter, dataSource, skipPolicy))
                 .faultTolerant()
-                .skip(RuntimeException.class)
-                .skipLimit(Integer.MAX_VALUE)
+                .skipPolicy(skipPolicy))
                 .listener((StepExecutionListener) batchLogStepListener)
                 .listener((ChunkListener) batchLogStepListener)
                 .listener((SkipListener<UserInfo, User>) batchLogStepListener)
@@ -67,77 +82,31 @@ public class IndividualProcessingJob {
 
     @Bean
     @StepScope
-    public ItemReader<UserInfo> userIndividualReader(@Value("#{jobParameters['usersJson']}") String usersJson) throws Exception {
-        List<UserInfo> users = objectMapper.readValue(usersJson, new TypeReference<List<UserInfo>>() {});
-        return new ListItemReader<>(users);
+    public JsonArrayItemReader<UserInfo> userIndividualReader(@Value("#{jobExecutionContext['validatedPayloadId']}") String payloadId) {
+        return payloadReaderFactory.userReader(payloadId, "userIndividualReader");
     }
 
     @Bean
     public ItemProcessor<UserInfo, User> userIndividualProcessor() {
         return userInfo -> {
             log.info("Processing user: {}", userInfo);
-            if ("invalid_email".equals(userInfo.email())) {
-                throw new RuntimeException("Invalid email for user: " + userInfo.username());
-            }
             return User.builder().username(userInfo.username()).email(userInfo.email()).build();
         };
     }
 
-    @Bean
-    public ItemWriter<User> userIndividualWriter() {
-        return users -> {
-            for (User user : users) {
-                User savedUser = userRepository.save(user);
-                log.info("User saved: {}", savedUser);
-            }
-        };
-    }
-
-    private class BatchLogJobListener implements JobExecutionListener {
-        @Override
-        public void beforeJob(JobExecution jobExecution) {
-           //saveBatchLog(jobExecution, "Job Started", null);
-        }
-
-        @Override
-        public void afterJob(JobExecution jobExecution) {
-           //saveBatchLog(jobExecution, "Job Finished", null);
-        }
-    }
-
+    // Stateless: totals come from the step execution, which counts the skips of the bisecting writer too
     private class BatchLogStepListener implements StepExecutionListener, ChunkListener, SkipListener<UserInfo, User> {
-        private final AtomicInteger totalData = new AtomicInteger(0);
-        private final AtomicInteger successData = new AtomicInteger(0);
-        private final AtomicInteger failureData = new AtomicInteger(0);
-
-        @Override
-        public void beforeStep(StepExecution stepExecution) {
-            totalData.set(0);
-            successData.set(0);
-            failureData.set(0);
-           // saveBatchLog(stepExecution.getJobExecution(), "Step Started", null);
-        }
 
         @Override
         public ExitStatus afterStep(StepExecution stepExecution) {
+            long total = stepExecution.getReadCount();
+            long failure = stepExecution.getSkipCount();
             saveBatchLog(stepExecution.getJobExecution(), "Step Finished",
-                    String.format("Total: %d, Success: %d, Failure: %d",
-                            totalData.get(), successData.get(), failureData.get()));
+                    String.format("Total: %d, Success: %d, Failure: %d", total, total - failure, failure));
+            batchLogSink.flush();
             return ExitStatus.COMPLETED;
         }
 
-        @Override
-        public void beforeChunk(ChunkContext context) {
-            //totalData.incrementAndGet();
-        }
-
-        @Override
-        public void afterChunk(ChunkContext context) {
-            int itemCount = (int) context.getStepContext().getStepExecution().getReadCount();
-            totalData.set(itemCount);
-            successData.set(itemCount - failureData.get());
-        }
-
         @Override
         public void afterChunkError(ChunkContext context) {
             Throwable exception = (Throwable) context.getAttribute("exception");
@@ -147,24 +116,18 @@ public class IndividualProcessingJob {
 
         @Override
         public void onSkipInProcess(UserInfo item, Throwable t) {
-            failureData.incrementAndGet();
             saveBatchLog(null, "Item Skipped",
                     String.format("User: %s, Error: %s", item.username(), t.getMessage()));
         }
+
+        @Override
+        public void onSkipInWrite(User item, Throwable t) {
+            saveBatchLog(null, "Item Skipped",
+                    String.format("User: %s, Error: %s", item.getUsername(), t.getMessage()));
+        }
     }
 
     private void saveBatchLog(JobExecution jobExecution, String message, String details) {
-        try {
-            BatchLog batchLog = BatchLog.builder()
-                    .jobName(jobExecution != null ? jobExecution.getJobInstance().getJobName() : "Unknown Job")
-                    .stepName("processIndividualStep")
-                    .errorMessage(message) // status 대신 errorMessage 사용
-                    .itemData(details)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            batchLogRepository.save(batchLog);
-        } catch (Exception e) {
-            log.error("Error saving batch log", e);
-        }
+        batchLogSink.record(jobExecution, "processIndividualStep", message, details);
     }
-}
\ No newline at end of file
+}
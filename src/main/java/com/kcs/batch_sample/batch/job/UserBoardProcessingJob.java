@@ -0,0 +1,142 @@
+package com.kcs.batch_sample.batch.job;
+
+import com.kcs.batch_sample.batch.compensation.ImportCompensationListener;
+import com.kcs.batch_sample.batch.compensation.ImportJournal;
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.reader.JsonArrayItemReader;
+import com.kcs.batch_sample.batch.reader.PayloadReaderFactory;
+import com.kcs.batch_sample.batch.staging.PayloadCleanupListener;
+import com.kcs.batch_sample.batch.validation.PayloadValidationStepFactory;
+import com.kcs.batch_sample.batch.writer.BoardImportWriter;
+import com.kcs.batch_sample.batch.writer.JournalingItemWriter;
+import com.kcs.batch_sample.batch.writer.UnknownUserException;
+import com.kcs.batch_sample.batch.writer.UserJdbcBatchWriter;
+import com.kcs.batch_sample.batch.writer.UserUpsertWriter;
+import com.kcs.batch_sample.domain.Board;
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.dto.BoardInfo;
+import com.kcs.batch_sample.dto.UserInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The user and board import job, built once at startup; the staged payload is bound per execution
+ * through the {@code payloadId} job parameter and validated before it is imported.
+ * <p>
+ * Users are streamed from the payload and batch inserted chunk by chunk, then boards are streamed and
+ * batch inserted with their user ids resolved by username. In INSERT mode a user whose username already
+ * exists is skipped and logged rather than failing the import, and so is a board whose user is unknown.
+ * Each chunk commits on its own; with the {@code atomic} job parameter a failed import deletes what its
+ * committed chunks inserted.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class UserBoardProcessingJob {
+
+    private static final JournaledTable USERS = new JournaledTable("users", "user_id");
+    private static final JournaledTable BOARDS = new JournaledTable("board", "board_id");
+
+    private final JobRepository jobRepository;
+    private final GenericBatchProcessingJob<UserInfo, User> userSteps;
+    private final GenericBatchProcessingJob<BoardInfo, Board> boardSteps;
+    private final PayloadReaderFactory payloadReaderFactory;
+    private final PayloadValidationStepFactory payloadValidationStepFactory;
+    private final UserJdbcBatchWriter userJdbcBatchWriter;
+    private final UserUpsertWriter userUpsertWriter;
+    private final BoardImportWriter boardImportWriter;
+    private final ImportJournal importJournal;
+    private final PayloadCleanupListener payloadCleanupListener;
+    private final BatchLogSink batchLogSink;
+
+    @Value("${app.batch.user-board.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.batch.user-board.skip-limit:" + Integer.MAX_VALUE + "}")
+    private int skipLimit;
+
+    @Bean(name = "processUserAndBoardsJob")
+    public Job processUserAndBoardsJob() {
+        return new JobBuilder("processUserAndBoardsJob", jobRepository)
+                .start(payloadValidationStepFactory.validationStep("validateUserAndBoardsStep"))
+                .next(userSteps.createStep(importUsersReader(null), importUserProcessor(), importUsersWriter(null, null, null),
+                        "importUsersStep", new SimpleCompletionPolicy(chunkSize), DuplicateKeyException.class, skipLimit))
+                .next(boardSteps.createStep(importBoardsReader(null), importBoardProcessor(), importBoardsWriter(null, null),
+                        "importBoardsStep", new SimpleCompletionPolicy(chunkSize), UnknownUserException.class, skipLimit))
+                .listener(new ImportCompensationListener(importJournal, batchLogSink, List.of(BOARDS, USERS)))
+                .listener(payloadCleanupListener)
+                .listener(batchLogSink)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public JsonArrayItemReader<UserInfo> importUsersReader(@Value("#{jobExecutionContext['validatedPayloadId']}") String payloadId) {
+        return payloadReaderFactory.userReader(payloadId, "importUsersReader");
+    }
+
+    @Bean
+    @StepScope
+    public JsonArrayItemReader<BoardInfo> importBoardsReader(@Value("#{jobExecutionContext['validatedPayloadId']}") String payloadId) {
+        return payloadReaderFactory.boardReader(payloadId, "importBoardsReader");
+    }
+
+    // Repeats of a username within the payload are filtered; a restart forgets the names read before it
+    @Bean
+    @StepScope
+    public ItemProcessor<UserInfo, User> importUserProcessor() {
+        Set<String> usernames = ConcurrentHashMap.newKeySet();
+        return userInfo -> usernames.add(userInfo.username())
+                ? User.builder().username(userInfo.username()).email(userInfo.email()).build()
+                : null;
+    }
+
+    // The user is resolved by username when the chunk is written
+    @Bean
+    public ItemProcessor<BoardInfo, Board> importBoardProcessor() {
+        return boardInfo -> Board.builder()
+                .title(boardInfo.title())
+                .content(boardInfo.content())
+                .user(User.builder().username(boardInfo.userUsername()).build())
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ItemWriter<User> importUsersWriter(@Value("#{jobParameters['payloadId']}") String payloadId,
+                                              @Value("#{jobParameters['atomic']}") Boolean atomic,
+                                              @Value("#{jobParameters['mode']}") String mode) {
+        ItemWriter<User> writer = ImportMode.of(mode) == ImportMode.UPSERT ? userUpsertWriter : userJdbcBatchWriter;
+        if (!Boolean.TRUE.equals(atomic)) {
+            return writer;
+        }
+        // Compensation only removes inserted users, users updated by an upsert keep their new email
+        return new JournalingItemWriter<>(writer, importJournal, payloadId, USERS, User::getId);
+    }
+
+    @Bean
+    @StepScope
+    public ItemWriter<Board> importBoardsWriter(@Value("#{jobParameters['payloadId']}") String payloadId,
+                                                @Value("#{jobParameters['atomic']}") Boolean atomic) {
+        if (!Boolean.TRUE.equals(atomic)) {
+            return boardImportWriter;
+        }
+        return new JournalingItemWriter<>(boardImportWriter, importJournal, payloadId, BOARDS, Board::getId);
+    }
+}
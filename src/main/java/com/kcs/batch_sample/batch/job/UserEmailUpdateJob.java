@@ -1,59 +1,104 @@
 package com.kcs.batch_sample.batch.job;
 
-import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.batch.partition.PartitionWorkQueue;
+import com.kcs.batch_sample.batch.partition.UserIdRangePartitioner;
+import com.kcs.batch_sample.batch.partition.WorkQueuePartitionHandler;
+import com.kcs.batch_sample.batch.reader.UserKeysetReaderFactory;
+import com.kcs.batch_sample.batch.tasklet.RangeUpdateTasklet;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
 import com.kcs.batch_sample.domain.User;
-import com.kcs.batch_sample.repository.BatchLogRepository;
-import com.kcs.batch_sample.repository.UserRepository;
-import jakarta.persistence.EntityManagerFactory;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+
 
 @Configuration
-@RequiredArgsConstructor
 @Slf4j
 public class UserEmailUpdateJob {
 
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
-    private final UserRepository userRepository;
-    private final BatchLogRepository batchLogRepository;
-    private final EntityManagerFactory entityManagerFactory;
-    private final JobLauncher jobLauncher;
+    private final BatchLogSink batchLogSink;
+    private final BatchMetricsListener batchMetricsListener;
+    private final UserKeysetReaderFactory userKeysetReaderFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobExplorer jobExplorer;
+    private final PartitionWorkQueue partitionWorkQueue;
+    private final TaskExecutor partitionTaskExecutor;
+
+    @Value("${app.batch.email-update.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.batch.partition.chunk-size:500}")
+    private int partitionChunkSize;
+
+    @Value("${app.batch.partition.grid-size:4}")
+    private int defaultGridSize;
+
+    @Value("${app.batch.partition.queue.poll-interval-ms:1000}")
+    private long queuePollIntervalMillis;
+
+    @Value("${app.batch.partition.queue.timeout-minutes:360}")
+    private long queueTimeoutMinutes;
+
+    @Value("${app.batch.email-update.set-based-range-size:10000}")
+    private long setBasedRangeSize;
+
+    public UserEmailUpdateJob(JobRepository jobRepository,
+                              PlatformTransactionManager transactionManager,
+                              BatchLogSink batchLogSink,
+                              BatchMetricsListener batchMetricsListener,
+                              UserKeysetReaderFactory userKeysetReaderFactory,
+                              JdbcTemplate jdbcTemplate,
+                              JobExplorer jobExplorer,
+                              PartitionWorkQueue partitionWorkQueue,
+                              @Qualifier("partitionTaskExecutor") TaskExecutor partitionTaskExecutor) {
+        this.jobRepository = jobRepository;
+        this.transactionManager = transactionManager;
+        this.batchLogSink = batchLogSink;
+        this.batchMetricsListener = batchMetricsListener;
+        this.userKeysetReaderFactory = userKeysetReaderFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobExplorer = jobExplorer;
+        this.partitionWorkQueue = partitionWorkQueue;
+        this.partitionTaskExecutor = partitionTaskExecutor;
+    }
 
     @Bean(name = "updateUserEmailJob")
     public Job updateUserEmailJob() {
         return new JobBuilder("updateUserEmailJob", jobRepository)
                 .start(updateUserEmailStep())
                 .listener(new BatchLogJobListener())
+                .listener(batchLogSink)
                 .build();
     }
 
     @Bean
     public Step updateUserEmailStep() {
         BatchLogStepListener batchLogStepListener = new BatchLogStepListener();
-        return new StepBuilder("updateUserEmailStep", jobRepository)
+        return batchMetricsListener.register(new StepBuilder("updateUserEmailStep", jobRepository)
                 .<User, User>chunk(5, transactionManager)
                 .reader(userReader())
                 .processor(userEmailProcessor())
-                .writer(userWriter())
+                .writer(userWriter()))
                 .listener((StepExecutionListener) batchLogStepListener)
                 .listener((ChunkListener) batchLogStepListener)
                 .listener((SkipListener<User, User>) batchLogStepListener)
@@ -61,16 +106,104 @@ public class UserEmailUpdateJob {
     }
 
     @Bean
-    public JpaPagingItemReader<User> userReader() {
-        return new JpaPagingItemReaderBuilder<User>()
-                .name("userReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT u FROM User u ORDER BY u.id DESC")
-                .pageSize(15)
-                .maxItemCount(15)
+    @StepScope
+    public JdbcPagingItemReader<User> userReader() {
+        return userKeysetReaderFactory.userReader("userReader", pageSize);
+    }
+
+    @Bean(name = "partitionedUpdateUserEmailJob")
+    public Job partitionedUpdateUserEmailJob() {
+        return new JobBuilder("partitionedUpdateUserEmailJob", jobRepository)
+                .start(updateUserEmailManagerStep())
+                .listener(new BatchLogJobListener())
+                .listener(batchLogSink)
+                .build();
+    }
+
+    @Bean
+    public Step updateUserEmailManagerStep() {
+        return new StepBuilder("updateUserEmailManagerStep", jobRepository)
+                .partitioner("updateUserEmailWorkerStep", userIdRangePartitioner(null))
+                .step(updateUserEmailWorkerStep())
+                .gridSize(defaultGridSize)
+                .taskExecutor(partitionTaskExecutor)
+                .listener(new BatchLogStepListener())
+                .listener((StepExecutionListener) batchMetricsListener)
+                .build();
+    }
+
+    @Bean(name = "queuePartitionedUpdateUserEmailJob")
+    public Job queuePartitionedUpdateUserEmailJob() {
+        return new JobBuilder("queuePartitionedUpdateUserEmailJob", jobRepository)
+                .start(updateUserEmailQueueManagerStep())
+                .listener(new BatchLogJobListener())
+                .listener(batchLogSink)
+                .build();
+    }
+
+    // Same partitions as updateUserEmailManagerStep, run by the partition queue workers of every node
+    @Bean
+    public Step updateUserEmailQueueManagerStep() {
+        WorkQueuePartitionHandler partitionHandler = new WorkQueuePartitionHandler(partitionWorkQueue, jobExplorer,
+                updateUserEmailWorkerStep().getName(), queuePollIntervalMillis, TimeUnit.MINUTES.toMillis(queueTimeoutMinutes));
+        partitionHandler.setGridSize(defaultGridSize);
+        return new StepBuilder("updateUserEmailQueueManagerStep", jobRepository)
+                .partitioner("updateUserEmailWorkerStep", userIdRangePartitioner(null))
+                .partitionHandler(partitionHandler)
+                .listener(new BatchLogStepListener())
+                .listener((StepExecutionListener) batchMetricsListener)
                 .build();
     }
 
+    @Bean
+    public Step updateUserEmailWorkerStep() {
+        BatchLogStepListener batchLogStepListener = new BatchLogStepListener();
+        return batchMetricsListener.register(new StepBuilder("updateUserEmailWorkerStep", jobRepository)
+                .<User, User>chunk(partitionChunkSize, transactionManager)
+                .reader(userRangeReader(null, null))
+                .processor(userEmailProcessor())
+                .writer(userWriter()))
+                .listener((ChunkListener) batchLogStepListener)
+                .listener((SkipListener<User, User>) batchLogStepListener)
+                .build();
+    }
+
+    @Bean(name = "setBasedUpdateUserEmailJob")
+    public Job setBasedUpdateUserEmailJob() {
+        return new JobBuilder("setBasedUpdateUserEmailJob", jobRepository)
+                .start(setBasedUpdateUserEmailStep())
+                .listener(new BatchLogJobListener())
+                .listener(batchLogSink)
+                .build();
+    }
+
+    // Same result as userEmailProcessor(), computed by the database one id range per transaction
+    @Bean
+    public Step setBasedUpdateUserEmailStep() {
+        return new StepBuilder("setBasedUpdateUserEmailStep", jobRepository)
+                .tasklet(new RangeUpdateTasklet(jdbcTemplate, "users", "user_id",
+                        "UPDATE users SET email = CONCAT('user', user_id, '@example.com') WHERE user_id BETWEEN ? AND ?",
+                        setBasedRangeSize), transactionManager)
+                .listener((StepExecutionListener) new BatchLogStepListener())
+                .listener((StepExecutionListener) batchMetricsListener)
+                .listener((ChunkListener) batchMetricsListener)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public UserIdRangePartitioner userIdRangePartitioner(@Value("#{jobParameters['gridSize']}") Long gridSize) {
+        return new UserIdRangePartitioner(jdbcTemplate, gridSize);
+    }
+
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<User> userRangeReader(
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+        return userKeysetReaderFactory.userRangeReader("userRangeReader", pageSize, minId, maxId);
+    }
+
     @Bean
     public ItemProcessor<User, User> userEmailProcessor() {
         return user -> {
@@ -81,26 +214,19 @@ public class UserEmailUpdateJob {
         };
     }
 
+    // Only the email changes, so one batched UPDATE per chunk instead of a load and save per user
     @Bean
     public ItemWriter<User> userWriter() {
         return users -> {
-            for (User user : users) {
-                userRepository.save(user);
-                log.info("User updated: {}", user);
-            }
+            jdbcTemplate.batchUpdate("UPDATE users SET email = ? WHERE user_id = ?", users.getItems(), users.size(),
+                    (ps, user) -> {
+                        ps.setString(1, user.getEmail());
+                        ps.setLong(2, user.getId());
+                    });
+            log.debug("Updated the email of {} users", users.size());
         };
     }
 
-    //@Scheduled(cron = "0 0 * * * ?") // Run every hour
-    // every minute
-    //@Scheduled(cron = "0 * * * * ?") // Run every minute
-    public void runJob() throws Exception {
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addLong("time", System.currentTimeMillis())
-                .toJobParameters();
-        jobLauncher.run(updateUserEmailJob(), jobParameters);
-    }
-
     private class BatchLogJobListener implements JobExecutionListener {
         @Override
         public void beforeJob(JobExecution jobExecution) {
@@ -113,23 +239,16 @@ public class UserEmailUpdateJob {
         }
     }
 
+    // Stateless: totals come from the step execution, which the partition manager aggregates over its workers
     private class BatchLogStepListener implements StepExecutionListener, ChunkListener, SkipListener<User, User> {
-        private final AtomicInteger totalData = new AtomicInteger(0);
-        private final AtomicInteger successData = new AtomicInteger(0);
-        private final AtomicInteger failureData = new AtomicInteger(0);
-
-        @Override
-        public void beforeStep(StepExecution stepExecution) {
-            totalData.set(0);
-            successData.set(0);
-            failureData.set(0);
-        }
 
         @Override
         public ExitStatus afterStep(StepExecution stepExecution) {
+            long total = stepExecution.getReadCount();
+            long failure = stepExecution.getSkipCount();
             saveBatchLog(stepExecution.getJobExecution(), "Step Finished",
-                    String.format("Total: %d, Success: %d, Failure: %d",
-                            totalData.get(), successData.get(), failureData.get()));
+                    String.format("Total: %d, Success: %d, Failure: %d", total, total - failure, failure));
+            batchLogSink.flush();
             return ExitStatus.COMPLETED;
         }
 
@@ -138,13 +257,6 @@ public class UserEmailUpdateJob {
             // Chunk 시작 전 처리
         }
 
-        @Override
-        public void afterChunk(ChunkContext context) {
-            int itemCount = (int) context.getStepContext().getStepExecution().getReadCount();
-            totalData.set(itemCount);
-            successData.set(itemCount - failureData.get());
-        }
-
         @Override
         public void afterChunkError(ChunkContext context) {
             Throwable exception = (Throwable) context.getAttribute("exception");
@@ -154,24 +266,12 @@ public class UserEmailUpdateJob {
 
         @Override
         public void onSkipInProcess(User item, Throwable t) {
-            failureData.incrementAndGet();
             saveBatchLog(null, "Item Skipped",
                     String.format("User: %s, Error: %s", item.getUsername(), t.getMessage()));
         }
     }
 
     private void saveBatchLog(JobExecution jobExecution, String message, String details) {
-        try {
-            BatchLog batchLog = BatchLog.builder()
-                    .jobName(jobExecution != null ? jobExecution.getJobInstance().getJobName() : "Unknown Job")
-                    .stepName("userEmailUpdateStep")
-                    .errorMessage(message)
-                    .itemData(details)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            batchLogRepository.save(batchLog);
-        } catch (Exception e) {
-            log.error("Error saving batch log", e);
-        }
+        batchLogSink.record(jobExecution, "userEmailUpdateStep", message, details);
     }
-}
\ No newline at end of file
+}
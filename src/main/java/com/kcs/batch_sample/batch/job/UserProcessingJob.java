@@ -0,0 +1,126 @@
+package com.kcs.batch_sample.batch.job;
+
+import com.kcs.batch_sample.batch.chunk.AdaptiveChunkCompletionPolicy;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import com.kcs.batch_sample.batch.reader.JsonArrayItemReader;
+import com.kcs.batch_sample.batch.reader.PayloadReaderFactory;
+import com.kcs.batch_sample.batch.validation.PayloadValidationStepFactory;
+import com.kcs.batch_sample.batch.writer.UserJdbcBatchWriter;
+import com.kcs.batch_sample.batch.writer.UserUpsertWriter;
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.dto.UserInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The user creation job, built once at startup. Everything that varies per request is bound from job
+ * parameters in step scope: the staged payload ({@code payloadId}), the chunk size ({@code chunkSize},
+ * adaptive when absent) and the {@link ImportMode} ({@code mode}). The payload is validated first; the
+ * chunk step only reads the records that passed.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class UserProcessingJob {
+
+    public static final String CHUNK_SIZE_PARAMETER = "chunkSize";
+
+    private final GenericBatchProcessingJob<UserInfo, User> genericBatchProcessingJob;
+    private final PayloadReaderFactory payloadReaderFactory;
+    private final UserJdbcBatchWriter userJdbcBatchWriter;
+    private final UserUpsertWriter userUpsertWriter;
+    private final BatchMetricsListener batchMetricsListener;
+    private final PayloadValidationStepFactory payloadValidationStepFactory;
+
+    @Value("${app.batch.chunk.adaptive.initial-size:100}")
+    private int adaptiveInitialSize;
+
+    @Value("${app.batch.chunk.adaptive.min-size:10}")
+    private int adaptiveMinSize;
+
+    @Value("${app.batch.chunk.adaptive.max-size:5000}")
+    private int adaptiveMaxSize;
+
+    @Value("${app.batch.chunk.adaptive.target-commit-ms:500}")
+    private long adaptiveTargetMillis;
+
+    // In INSERT mode users whose username already exists are skipped rather than failing the import
+    @Value("${app.batch.users.skip-limit:" + Integer.MAX_VALUE + "}")
+    private int skipLimit;
+
+    @Bean(name = "processUsersJob")
+    public Job processUsersJob() {
+        return genericBatchProcessingJob.createJob(
+                payloadValidationStepFactory.validationStep("validateUsersStep"),
+                processUsersReader(null),
+                processUsersProcessor(),
+                processUsersWriter(null),
+                "processUsersJob",
+                "processUsersStep",
+                processUsersCompletionPolicy(null),
+                false,
+                DuplicateKeyException.class,
+                skipLimit
+        );
+    }
+
+    @Bean(name = "processUsersParallelJob")
+    public Job processUsersParallelJob() {
+        return genericBatchProcessingJob.createJob(
+                payloadValidationStepFactory.validationStep("validateUsersStep"),
+                processUsersReader(null),
+                processUsersProcessor(),
+                processUsersWriter(null),
+                "processUsersParallelJob",
+                "processUsersParallelStep",
+                processUsersCompletionPolicy(null),
+                true,
+                DuplicateKeyException.class,
+                skipLimit
+        );
+    }
+
+    @Bean
+    @StepScope
+    public JsonArrayItemReader<UserInfo> processUsersReader(@Value("#{jobExecutionContext['validatedPayloadId']}") String payloadId) {
+        return payloadReaderFactory.userReader(payloadId, "userReader");
+    }
+
+    // A fixed size when the chunkSize parameter is given, otherwise sized to the target commit time
+    @Bean
+    @StepScope
+    public AdaptiveChunkCompletionPolicy processUsersCompletionPolicy(@Value("#{jobParameters['chunkSize']}") Long chunkSize) {
+        if (chunkSize != null) {
+            return AdaptiveChunkCompletionPolicy.fixed(chunkSize.intValue(), batchMetricsListener);
+        }
+        return new AdaptiveChunkCompletionPolicy(adaptiveInitialSize, adaptiveMinSize, adaptiveMaxSize,
+                adaptiveTargetMillis, batchMetricsListener);
+    }
+
+    // Repeats of a username within the payload are filtered; a restart forgets the names read before it
+    @Bean
+    @StepScope
+    public ItemProcessor<UserInfo, User> processUsersProcessor() {
+        Set<String> usernames = ConcurrentHashMap.newKeySet();
+        return userInfo -> usernames.add(userInfo.username())
+                ? User.builder().username(userInfo.username()).email(userInfo.email()).build()
+                : null;
+    }
+
+    @Bean
+    @StepScope
+    public ItemWriter<User> processUsersWriter(@Value("#{jobParameters['mode']}") String mode) {
+        return ImportMode.of(mode) == ImportMode.UPSERT ? userUpsertWriter : userJdbcBatchWriter;
+    }
+}
@@ -0,0 +1,203 @@
+package com.kcs.batch_sample.batch.log;
+
+import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.repository.BatchLogRepository;
+import com.kcs.batch_sample.repository.BatchLogSummaryRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects batch_log rows from the job listeners and writes them in batches on a background thread,
+ * so a skip no longer costs an INSERT on the chunk thread.
+ * <p>
+ * Rows are written when {@code flush-size} of them are queued or every {@code flush-interval-ms},
+ * always in a new transaction so they survive a chunk rollback; the same transaction adds them to
+ * batch_log_summary. {@link #flush()} writes everything queued so far before returning; the step
+ * listeners call it in afterStep and the sink flushes again in afterJob when registered as a job listener.
+ */
+@Component
+@Slf4j
+public class BatchLogSink implements JobExecutionListener, MeterBinder, InitializingBean, DisposableBean {
+
+    /**
+     * What {@link #record} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** The calling thread writes the queued rows itself; nothing is lost, the caller is slowed down. */
+        CALLER_RUNS,
+        /** The row is discarded and counted. */
+        DROP,
+        /** The caller waits for room in the queue. */
+        BLOCK
+    }
+
+    private final BatchLogRepository batchLogRepository;
+    private final BatchLogSummaryRepository batchLogSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<BatchLog> queue;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public BatchLogSink(BatchLogRepository batchLogRepository,
+                        BatchLogSummaryRepository batchLogSummaryRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.batch.log.queue-capacity:10000}") int queueCapacity,
+                        @Value("${app.batch.log.flush-size:200}") int flushSize,
+                        @Value("${app.batch.log.flush-interval-ms:1000}") long flushIntervalMillis,
+                        @Value("${app.batch.log.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy) {
+        this.batchLogRepository = batchLogRepository;
+        this.batchLogSummaryRepository = batchLogSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void record(JobExecution jobExecution, String stepName, String message, String details) {
+        BatchLog batchLog = BatchLog.builder()
+                .jobName(jobExecution != null ? jobExecution.getJobInstance().getJobName() : "Unknown Job")
+                .stepName(stepName)
+                .errorMessage(message)
+                .itemData(details)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        if (!queue.offer(batchLog)) {
+            onOverflow(batchLog);
+        } else if (queue.size() >= flushSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Writes every row queued before the call.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<BatchLog> batch = new ArrayList<>(flushSize);
+            while (queue.drainTo(batch, flushSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("batch.log.queue.size", queue, BlockingQueue::size)
+                .description("batch_log rows waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("batch.log.dropped", droppedCount, AtomicLong::get)
+                .description("batch_log rows discarded on overflow or write failure")
+                .register(registry);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        flush();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "batch-log-sink");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    private void runWriter() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Error flushing batch logs", e);
+            }
+        }
+    }
+
+    private void onOverflow(BatchLog batchLog) {
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> {
+                flush();
+                if (!queue.offer(batchLog)) {
+                    write(List.of(batchLog));
+                }
+            }
+            case BLOCK -> {
+                try {
+                    queue.put(batchLog);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+            }
+            case DROP -> {
+                if (droppedCount.incrementAndGet() % 1000 == 1) {
+                    log.warn("Batch log queue full, {} rows dropped so far", droppedCount.get());
+                }
+            }
+        }
+    }
+
+    private void write(List<BatchLog> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batchLogRepository.saveAll(batch);
+                batchLogSummaryRepository.increment(batch);
+            });
+        } catch (Exception e) {
+            droppedCount.addAndGet(batch.size());
+            log.error("Error saving {} batch logs", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.kcs.batch_sample.batch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes chunk, item and skip metrics tagged by job and step.
+ * <p>
+ * One instance is shared by every step. Timings of the chunk in progress are kept per thread, so it works
+ * unchanged for multi-threaded and partitioned steps: each chunk runs start to finish on one thread.
+ * Item counts follow the StepExecution instead, as a fault-tolerant step retries a rolled back chunk
+ * from the items it already read.
+ * With {@code AsyncItemProcessor} the process timer only covers handing items to the executor;
+ * the executor's own metrics show the processing side.
+ * <pre>
+ * batch.chunk{job,step}                      whole chunk, read to commit
+ * batch.chunk.read / .process / .write       time spent in each phase per chunk
+ * batch.chunk.commit                         end of write to end of the transaction
+ * batch.chunk.rollbacks{job,step}            chunks that failed
+ * batch.items.read / .written{job,step}      committed items; rate() gives items/sec
+ * batch.items.skipped{job,step,phase}        skips by phase (read, process, write)
+ * batch.items.rejected{job,step}             records rejected by payload validation
+ * batch.step.throughput{job,step}            items written per second over a finished step
+ * batch.chunk.size{job,step}                 current size chosen by an adaptive chunk policy
+ * </pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<Object>,
+        ItemProcessListener<Object, Object>, ItemWriteListener<Object>, SkipListener<Object, Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadLocal<ChunkTimings> currentChunk = new ThreadLocal<>();
+    private final Map<Tags, AtomicInteger> chunkSizes = new ConcurrentHashMap<>();
+    private final Map<Long, ReportedCounts> reportedCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Registers this listener for every callback it implements on a chunk-oriented step.
+     */
+    public <B extends SimpleStepBuilder<?, ?>> B register(B builder) {
+        builder.listener((StepExecutionListener) this);
+        builder.listener((ChunkListener) this);
+        builder.listener((ItemReadListener<Object>) this);
+        builder.listener((ItemProcessListener<Object, Object>) this);
+        builder.listener((ItemWriteListener<Object>) this);
+        return builder;
+    }
+
+    public void recordChunkSize(String jobName, String stepName, int chunkSize) {
+        chunkSizes.computeIfAbsent(tags(jobName, stepName), tags -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("batch.chunk.size", value, AtomicInteger::get).tags(tags).register(meterRegistry);
+            return value;
+        }).set(chunkSize);
+    }
+
+    public void recordRejects(String jobName, String stepName, long count) {
+        Counter.builder("batch.items.rejected").tags(tags(jobName, stepName)).register(meterRegistry).increment(count);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        reportedCounts.remove(stepExecution.getId());
+        LocalDateTime start = stepExecution.getStartTime();
+        if (start != null) {
+            long millis = Math.max(1, Duration.between(start, LocalDateTime.now()).toMillis());
+            DistributionSummary.builder("batch.step.throughput")
+                    .description("Items written per second over a finished step")
+                    .baseUnit("items")
+                    .tags(tags(stepExecution.getJobExecution().getJobInstance().getJobName(), stepExecution.getStepName()))
+                    .register(meterRegistry)
+                    .record(stepExecution.getWriteCount() * 1000.0 / millis);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        currentChunk.set(new ChunkTimings(tags(context.getStepContext().getJobName(), context.getStepContext().getStepName())));
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings == null) {
+            return;
+        }
+        currentChunk.remove();
+        long now = System.nanoTime();
+        timer("batch.chunk", timings.tags).record(now - timings.chunkStart, TimeUnit.NANOSECONDS);
+        // Tasklet steps have no read/process/write phases, only the chunk timer applies to them
+        if (timings.writeEnd > 0) {
+            timer("batch.chunk.read", timings.tags).record(timings.readNanos, TimeUnit.NANOSECONDS);
+            timer("batch.chunk.process", timings.tags).record(timings.processNanos, TimeUnit.NANOSECONDS);
+            timer("batch.chunk.write", timings.tags).record(timings.writeNanos, TimeUnit.NANOSECONDS);
+            timer("batch.chunk.commit", timings.tags).record(now - timings.writeEnd, TimeUnit.NANOSECONDS);
+        }
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        ReportedCounts reported = reportedCounts.computeIfAbsent(stepExecution.getId(), id -> new ReportedCounts());
+        increment("batch.items.read", timings.tags, reported.read, stepExecution.getReadCount());
+        increment("batch.items.written", timings.tags, reported.written, stepExecution.getWriteCount());
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        currentChunk.remove();
+        Counter.builder("batch.chunk.rollbacks")
+                .tags(tags(context.getStepContext().getJobName(), context.getStepContext().getStepName()))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void beforeRead() {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.readNanos += System.nanoTime() - timings.mark;
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.readNanos += System.nanoTime() - timings.mark;
+        }
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        endProcess();
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        endProcess();
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.writeEnd = System.nanoTime();
+            timings.writeNanos += timings.writeEnd - timings.mark;
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.writeNanos += System.nanoTime() - timings.mark;
+        }
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        skipped("read");
+    }
+
+    @Override
+    public void onSkipInProcess(Object item, Throwable t) {
+        skipped("process");
+    }
+
+    @Override
+    public void onSkipInWrite(Object item, Throwable t) {
+        skipped("write");
+    }
+
+    private void endProcess() {
+        ChunkTimings timings = currentChunk.get();
+        if (timings != null) {
+            timings.processNanos += System.nanoTime() - timings.mark;
+        }
+    }
+
+    private void skipped(String phase) {
+        // Skip callbacks run after the chunk, so the tags come from the step context of the thread
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        Tags tags = stepContext != null ? tags(stepContext.getJobName(), stepContext.getStepName()) : tags("unknown", "unknown");
+        Counter.builder("batch.items.skipped").tags(tags.and("phase", phase)).register(meterRegistry).increment();
+    }
+
+    // Threads of a multi-threaded step each see the step's total, only the part nobody reported yet is counted
+    private void increment(String name, Tags tags, AtomicLong reported, long total) {
+        long previous = reported.getAndAccumulate(total, Math::max);
+        if (total > previous) {
+            Counter.builder(name).tags(tags).register(meterRegistry).increment(total - previous);
+        }
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Tags tags(String jobName, String stepName) {
+        // Partition worker steps are named "<step>:<partition>", keep the partition out of the tag
+        int partitionSeparator = stepName.indexOf(':');
+        return Tags.of("job", jobName, "step", partitionSeparator > 0 ? stepName.substring(0, partitionSeparator) : stepName);
+    }
+
+    private static final class ChunkTimings {
+        private final Tags tags;
+        private final long chunkStart = System.nanoTime();
+        private long mark;
+        private long readNanos;
+        private long processNanos;
+        private long writeNanos;
+        private long writeEnd;
+
+        private ChunkTimings(Tags tags) {
+            this.tags = tags;
+        }
+    }
+
+    private static final class ReportedCounts {
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+    }
+}
@@ -0,0 +1,229 @@
+package com.kcs.batch_sample.batch.partition;
+
+import com.kcs.batch_sample.batch.partition.PartitionWorkQueue.WorkItem;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepLocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This node's share of the partitions queued by {@link WorkQueuePartitionHandler}s: {@code worker-threads}
+ * threads each claim a partition from the {@link PartitionWorkQueue}, run the named worker step on its
+ * StepExecution and report the outcome through the shared JobRepository, like a local partition would.
+ * <p>
+ * The lease of a running partition is renewed every third of {@code lease-ms}. A node that stops
+ * renewing, because it died or hung, loses its partitions to the next worker polling after the lease
+ * expired; that worker resumes from the partition's last committed ExecutionContext. A worker that finds
+ * its lease taken over stops its partition at the next chunk boundary. A partition claimed more than
+ * {@code max-attempts} times is failed instead of run again.
+ * <p>
+ * Nothing checks that the previous owner is really gone before the partition runs again: a node that
+ * only hung may wake up still running it. The StepExecution version fences it off instead. The new
+ * owner updates the StepExecution before its first chunk, so the chunk the old owner commits next fails
+ * its own StepExecution update and rolls back, writes included, as long as the writer uses the
+ * JobRepository's transaction manager. Whatever a worker step does outside that transaction, such as
+ * writing files or calling other systems, can still happen twice for the chunk in flight.
+ * <p>
+ * With {@code worker-threads} set to 0 the node only queues partitions and leaves them to other nodes.
+ */
+@Component
+@Slf4j
+public class PartitionQueueWorker implements SmartLifecycle, MeterBinder {
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final PartitionWorkQueue workQueue;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final StepLocator stepLocator;
+    private final String nodeId;
+    private final int workerThreads;
+    private final long pollIntervalMillis;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong reclaimedCount = new AtomicLong();
+    private final AtomicLong abandonedCount = new AtomicLong();
+
+    private volatile boolean running;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    public PartitionQueueWorker(PartitionWorkQueue workQueue,
+                                JobExplorer jobExplorer,
+                                JobRepository jobRepository,
+                                StepLocator stepLocator,
+                                @Value("${app.batch.partition.queue.node-id:}") String nodeId,
+                                @Value("${app.batch.partition.queue.worker-threads:2}") int workerThreads,
+                                @Value("${app.batch.partition.queue.poll-interval-ms:1000}") long pollIntervalMillis,
+                                @Value("${app.batch.partition.queue.lease-ms:60000}") long leaseMillis,
+                                @Value("${app.batch.partition.queue.max-attempts:3}") int maxAttempts) {
+        this.workQueue = workQueue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.stepLocator = stepLocator;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : ManagementFactory.getRuntimeMXBean().getName();
+        this.workerThreads = workerThreads;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("batch.partition.queue.active", activeCount, AtomicInteger::get)
+                .description("Queued partitions running on this node")
+                .register(registry);
+        FunctionCounter.builder("batch.partition.queue.reclaimed", reclaimedCount, AtomicLong::get)
+                .description("Partitions claimed again after the lease of another worker expired")
+                .register(registry);
+        FunctionCounter.builder("batch.partition.queue.abandoned", abandonedCount, AtomicLong::get)
+                .description("Partitions failed after exhausting their attempts")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || workerThreads < 1) {
+            return;
+        }
+        running = true;
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-heartbeat-"));
+        for (int i = 0; i < workerThreads; i++) {
+            String owner = nodeId + "#" + i;
+            Thread thread = new Thread(() -> poll(owner), "partition-queue-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        log.info("Started {} partition queue workers on node {}", workerThreads, nodeId);
+    }
+
+    // Partitions already running get a minute to finish; the rest are picked up once their lease expires
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        threads.clear();
+        heartbeatScheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll(String owner) {
+        while (running) {
+            try {
+                Optional<WorkItem> item = workQueue.claim(owner, lease);
+                if (item.isPresent()) {
+                    process(item.get(), owner);
+                    continue;
+                }
+            } catch (Exception e) {
+                log.error("Error claiming a partition", e);
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+        }
+    }
+
+    private void process(WorkItem item, String owner) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(item.jobExecutionId(), item.stepExecutionId());
+        if (stepExecution == null || !stepExecution.getStatus().isRunning()) {
+            // Finished by a previous owner that stopped before removing it
+            workQueue.complete(item.stepExecutionId(), owner);
+            return;
+        }
+        if (item.attempts() > 1) {
+            reclaimedCount.incrementAndGet();
+            log.warn("Partition {} claimed again after its lease expired, attempt {}", stepExecution.getStepName(), item.attempts());
+        }
+        if (item.attempts() > maxAttempts) {
+            abandon(stepExecution);
+            workQueue.complete(item.stepExecutionId(), owner);
+            return;
+        }
+
+        long heartbeatMillis = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeatScheduler.scheduleAtFixedRate(() -> renew(item, owner, stepExecution),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        activeCount.incrementAndGet();
+        try {
+            Step step = stepLocator.getStep(item.stepName());
+            step.execute(stepExecution);
+            workQueue.complete(item.stepExecutionId(), owner);
+        } catch (Exception e) {
+            log.error("Error running partition {}, returning it to the queue", stepExecution.getStepName(), e);
+            workQueue.release(item.stepExecutionId(), owner);
+        } finally {
+            heartbeat.cancel(false);
+            activeCount.decrementAndGet();
+        }
+    }
+
+    private void renew(WorkItem item, String owner, StepExecution stepExecution) {
+        try {
+            if (!workQueue.renew(item.stepExecutionId(), owner, lease)) {
+                log.warn("Lost the lease of partition {}, stopping it", stepExecution.getStepName());
+                stepExecution.setTerminateOnly();
+            }
+        } catch (Exception e) {
+            // Retried on the next heartbeat, well before the lease expires
+            log.error("Error renewing the lease of partition {}", stepExecution.getStepName(), e);
+        }
+    }
+
+    private void abandon(StepExecution stepExecution) {
+        abandonedCount.incrementAndGet();
+        log.error("Failing partition {} after {} attempts", stepExecution.getStepName(), maxAttempts);
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(
+                "Partition abandoned after " + maxAttempts + " attempts"));
+        stepExecution.setEndTime(LocalDateTime.now());
+        jobRepository.update(stepExecution);
+    }
+}
@@ -0,0 +1,124 @@
+package com.kcs.batch_sample.batch.partition;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The batch_partition_queue table, through which a manager step hands its partitions to the workers
+ * of every application node.
+ * <p>
+ * A worker claims the oldest partition that is queued or whose lease expired with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent workers never wait on each other nor claim
+ * the same row, and keeps its lease by renewing it while the partition runs. Every call commits in its
+ * own transaction. Lease times are taken from the application clock, which nodes must keep in sync.
+ */
+@Component
+public class PartitionWorkQueue {
+
+    private static final String INSERT_SQL = "INSERT INTO batch_partition_queue "
+            + "(step_execution_id, job_execution_id, step_name, status, attempts, created_at) VALUES (?, ?, ?, 'QUEUED', 0, ?)";
+    private static final String CLAIM_SELECT_SQL = "SELECT step_execution_id, job_execution_id, step_name, attempts "
+            + "FROM batch_partition_queue WHERE status = 'QUEUED' OR (status = 'CLAIMED' AND lease_expires_at < ?) "
+            + "ORDER BY step_execution_id LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String CLAIM_UPDATE_SQL = "UPDATE batch_partition_queue SET status = 'CLAIMED', owner = ?, "
+            + "attempts = attempts + 1, lease_expires_at = ?, heartbeat_at = ? WHERE step_execution_id = ?";
+    private static final String RENEW_SQL = "UPDATE batch_partition_queue SET lease_expires_at = ?, heartbeat_at = ? "
+            + "WHERE step_execution_id = ? AND owner = ? AND status = 'CLAIMED'";
+    private static final String RELEASE_SQL = "UPDATE batch_partition_queue SET status = 'QUEUED', owner = NULL, "
+            + "lease_expires_at = NULL WHERE step_execution_id = ? AND owner = ?";
+    private static final String COMPLETE_SQL = "DELETE FROM batch_partition_queue WHERE step_execution_id = ? AND owner = ?";
+    private static final String REMOVE_SQL = "DELETE FROM batch_partition_queue WHERE step_execution_id IN (:ids)";
+
+    /**
+     * A claimed partition; {@code attempts} includes the current claim.
+     */
+    public record WorkItem(long stepExecutionId, long jobExecutionId, String stepName, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PartitionWorkQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void enqueue(String stepName, Collection<StepExecution> partitions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(partitions.size());
+        for (StepExecution partition : partitions) {
+            rows.add(new Object[]{partition.getId(), partition.getJobExecutionId(), stepName, now});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+    }
+
+    public Optional<WorkItem> claim(String owner, Duration lease) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WorkItem> candidates = jdbcTemplate.query(CLAIM_SELECT_SQL,
+                    (rs, rowNum) -> new WorkItem(rs.getLong("step_execution_id"), rs.getLong("job_execution_id"),
+                            rs.getString("step_name"), rs.getInt("attempts") + 1),
+                    now);
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            WorkItem item = candidates.get(0);
+            jdbcTemplate.update(CLAIM_UPDATE_SQL, owner, now.plus(lease), now, item.stepExecutionId());
+            return Optional.of(item);
+        });
+    }
+
+    /**
+     * Extends the lease of a partition the owner still holds.
+     *
+     * @return false if the lease expired and the partition was claimed by another worker or removed
+     */
+    public boolean renew(long stepExecutionId, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                jdbcTemplate.update(RENEW_SQL, now.plus(lease), now, stepExecutionId, owner));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * Puts a partition the owner could not run back in the queue.
+     */
+    public void release(long stepExecutionId, String owner) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(RELEASE_SQL, stepExecutionId, owner));
+    }
+
+    /**
+     * Removes a partition once its owner has recorded the outcome in the JobRepository.
+     */
+    public void complete(long stepExecutionId, String owner) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(COMPLETE_SQL, stepExecutionId, owner));
+    }
+
+    /**
+     * Removes partitions whatever their state, so that none is started after the manager stopped waiting.
+     */
+    public int remove(Collection<Long> stepExecutionIds) {
+        if (stepExecutionIds.isEmpty()) {
+            return 0;
+        }
+        Integer removed = transactionTemplate.execute(status ->
+                namedParameterJdbcTemplate.update(REMOVE_SQL, Map.of("ids", stepExecutionIds)));
+        return removed == null ? 0 : removed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kcs.batch_sample.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits {@code users.user_id} into contiguous [minId, maxId] ranges, one per partition.
+ * A positive {@code gridSizeOverride} (usually bound from a job parameter) wins over the
+ * grid size configured on the manager step.
+ */
+@Slf4j
+public class UserIdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Long gridSizeOverride;
+
+    public UserIdRangePartitioner(JdbcTemplate jdbcTemplate, Long gridSizeOverride) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gridSizeOverride = gridSizeOverride;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        int partitions = gridSizeOverride != null && gridSizeOverride > 0 ? gridSizeOverride.intValue() : gridSize;
+        Map<String, Long> bounds = jdbcTemplate.queryForObject(
+                "SELECT MIN(user_id) AS min_id, MAX(user_id) AS max_id FROM users",
+                (rs, rowNum) -> {
+                    Map<String, Long> row = new HashMap<>();
+                    row.put(MIN_ID_KEY, rs.getObject("min_id") == null ? null : rs.getLong("min_id"));
+                    row.put(MAX_ID_KEY, rs.getObject("max_id") == null ? null : rs.getLong("max_id"));
+                    return row;
+                });
+
+        Map<String, ExecutionContext> result = new HashMap<>();
+        if (bounds == null || bounds.get(MIN_ID_KEY) == null) {
+            // Empty table: a single partition that reads nothing
+            result.put("partition0", rangeContext(0, -1));
+            return result;
+        }
+
+        long minId = bounds.get(MIN_ID_KEY);
+        long maxId = bounds.get(MAX_ID_KEY);
+        long rangeSize = Math.max(1, (maxId - minId) / partitions + 1);
+
+        int index = 0;
+        for (long start = minId; start <= maxId; start += rangeSize) {
+            long end = Math.min(maxId, start + rangeSize - 1);
+            result.put("partition" + index++, rangeContext(start, end));
+        }
+        log.info("Partitioned user_id range [{}, {}] into {} partitions", minId, maxId, result.size());
+        return result;
+    }
+
+    private ExecutionContext rangeContext(long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_ID_KEY, minId);
+        context.putLong(MAX_ID_KEY, maxId);
+        return context;
+    }
+}
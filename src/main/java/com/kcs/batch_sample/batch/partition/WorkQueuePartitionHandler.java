@@ -0,0 +1,84 @@
+package com.kcs.batch_sample.batch.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hands the partitions of a manager step to {@link PartitionQueueWorker}s through the
+ * {@link PartitionWorkQueue} instead of running them on local threads, so every application node
+ * sharing the database can take a share of a single job.
+ * <p>
+ * The manager then polls the JobRepository every {@code pollIntervalMillis} until every partition
+ * stopped running. After {@code timeoutMillis} it gives up and fails the step; partitions still in
+ * the queue are removed either way.
+ */
+@Slf4j
+public class WorkQueuePartitionHandler extends AbstractPartitionHandler {
+
+    private final PartitionWorkQueue workQueue;
+    private final JobExplorer jobExplorer;
+    private final String stepName;
+    private final long pollIntervalMillis;
+    private final long timeoutMillis;
+
+    /**
+     * @param stepName name of the worker step bean the workers look up and run
+     */
+    public WorkQueuePartitionHandler(PartitionWorkQueue workQueue, JobExplorer jobExplorer, String stepName,
+                                     long pollIntervalMillis, long timeoutMillis) {
+        this.workQueue = workQueue;
+        this.jobExplorer = jobExplorer;
+        this.stepName = stepName;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        if (partitionStepExecutions.isEmpty()) {
+            return partitionStepExecutions;
+        }
+        Map<Long, StepExecution> pending = new HashMap<>();
+        for (StepExecution partition : partitionStepExecutions) {
+            pending.put(partition.getId(), partition);
+        }
+        Set<Long> ids = Set.copyOf(pending.keySet());
+        workQueue.enqueue(stepName, partitionStepExecutions);
+        log.info("Queued {} partitions of {} for step {}", ids.size(), managerStepExecution.getStepName(), stepName);
+
+        Set<StepExecution> finished = new HashSet<>();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (true) {
+                for (Iterator<StepExecution> it = pending.values().iterator(); it.hasNext(); ) {
+                    StepExecution partition = it.next();
+                    StepExecution current = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+                    if (current != null && !current.getStatus().isRunning()) {
+                        finished.add(current);
+                        it.remove();
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return finished;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new TimeoutException("Timed out waiting for " + pending.size() + " of " + ids.size()
+                            + " partitions of " + managerStepExecution.getStepName());
+                }
+                Thread.sleep(pollIntervalMillis);
+            }
+        } finally {
+            workQueue.remove(ids);
+        }
+    }
+}
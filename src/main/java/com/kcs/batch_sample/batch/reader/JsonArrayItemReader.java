@@ -0,0 +1,107 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Streams the elements of a JSON array one token run at a time, so memory use does not
+ * depend on the payload size. The array is either the document root or, when
+ * {@code arrayField} is set, a top-level field of the root object such as
+ * {@code {"users": [...], "boards": [...]}}.
+ */
+public class JsonArrayItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private final Resource resource;
+    private final String arrayField;
+    private final Class<T> itemType;
+    private final ObjectMapper objectMapper;
+
+    private JsonParser parser;
+    private boolean exhausted;
+
+    public JsonArrayItemReader(Resource resource, String arrayField, Class<T> itemType, ObjectMapper objectMapper) {
+        this.resource = resource;
+        this.arrayField = arrayField;
+        this.itemType = itemType;
+        this.objectMapper = objectMapper;
+        setName(ClassUtils.getShortName(JsonArrayItemReader.class));
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        parser = objectMapper.getFactory().createParser(resource.getInputStream());
+        exhausted = !moveToArray();
+    }
+
+    private boolean moveToArray() throws Exception {
+        JsonToken token = parser.nextToken();
+        if (arrayField == null) {
+            return expectArray(token);
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new ItemStreamException("Expected a JSON object at the root of " + resource.getDescription());
+        }
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            token = parser.nextToken();
+            if (arrayField.equals(fieldName)) {
+                return expectArray(token);
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private boolean expectArray(JsonToken token) {
+        if (token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new ItemStreamException("Expected a JSON array"
+                    + (arrayField != null ? " in field '" + arrayField + "'" : "")
+                    + " of " + resource.getDescription());
+        }
+        return true;
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            exhausted = true;
+            return null;
+        }
+        return objectMapper.readValue(parser, itemType);
+    }
+
+    /**
+     * Skips already processed elements on restart without binding them.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        for (int i = 0; i < itemIndex && !exhausted; i++) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                exhausted = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (parser != null) {
+            parser.close();
+            parser = null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.dto.BoardInfo;
+import com.kcs.batch_sample.dto.UserInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streaming readers over the {@code users} and {@code boards} arrays of a staged request body.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadReaderFactory {
+
+    private final PayloadStore payloadStore;
+    private final ObjectMapper objectMapper;
+
+    public JsonArrayItemReader<UserInfo> userReader(String payloadId, String name) {
+        JsonArrayItemReader<UserInfo> reader = new JsonArrayItemReader<>(
+                payloadStore.resource(payloadId), "users", UserInfo.class, objectMapper);
+        reader.setName(name);
+        return reader;
+    }
+
+    public JsonArrayItemReader<BoardInfo> boardReader(String payloadId, String name) {
+        JsonArrayItemReader<BoardInfo> reader = new JsonArrayItemReader<>(
+                payloadStore.resource(payloadId), "boards", BoardInfo.class, objectMapper);
+        reader.setName(name);
+        return reader;
+    }
+}
@@ -0,0 +1,112 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.kcs.batch_sample.domain.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Seek-method readers over {@code users}, newest first. Every page after the first is
+ * fetched with {@code WHERE user_id < :lastId ORDER BY user_id DESC LIMIT :pageSize},
+ * and the last key read is kept in the ExecutionContext so restarts resume right after it.
+ * <p>
+ * A plain {@link JdbcPagingItemReader} resumes from the last key of the page before and skips
+ * the items already read by count, so a user deleted before the restart would shift the page
+ * and the reader would skip a user it never read.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserKeysetReaderFactory {
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> User.builder()
+            .id(rs.getLong("user_id"))
+            .username(rs.getString("username"))
+            .email(rs.getString("email"))
+            .build();
+
+    private final DataSource dataSource;
+
+    public JdbcPagingItemReader<User> userReader(String name, int pageSize) {
+        return initialize(name, pageSize, "WHERE user_id < :resumeBefore", Map.of());
+    }
+
+    /**
+     * Same seek-method reader restricted to {@code minId <= user_id <= maxId}, used by partitions.
+     */
+    public JdbcPagingItemReader<User> userRangeReader(String name, int pageSize, long minId, long maxId) {
+        return initialize(name, pageSize, "WHERE user_id BETWEEN :minId AND :maxId AND user_id < :resumeBefore",
+                Map.of("minId", minId, "maxId", maxId));
+    }
+
+    private JdbcPagingItemReader<User> initialize(String name, int pageSize, String whereClause,
+                                                  Map<String, Object> parameterValues) {
+        try {
+            SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+            queryProvider.setDataSource(dataSource);
+            queryProvider.setSelectClause("SELECT user_id, username, email");
+            queryProvider.setFromClause("FROM users");
+            queryProvider.setWhereClause(whereClause);
+            queryProvider.setSortKeys(Map.of("user_id", Order.DESCENDING));
+
+            KeysetUserReader reader = new KeysetUserReader(parameterValues);
+            reader.setName(name);
+            reader.setDataSource(dataSource);
+            reader.setPageSize(pageSize);
+            reader.setFetchSize(pageSize);
+            reader.setQueryProvider(queryProvider.getObject());
+            reader.setRowMapper(USER_ROW_MAPPER);
+            reader.afterPropertiesSet();
+            return reader;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not initialize keyset reader " + name, e);
+        }
+    }
+
+    // Restarts below the last user read, as a fresh reader, instead of replaying the read count
+    private static class KeysetUserReader extends JdbcPagingItemReader<User> {
+
+        private static final String LAST_ID_KEY = "last.id";
+
+        private final Map<String, Object> parameterValues;
+        private Long lastId;
+
+        private KeysetUserReader(Map<String, Object> parameterValues) {
+            this.parameterValues = parameterValues;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            String lastIdKey = getExecutionContextKey(LAST_ID_KEY);
+            lastId = executionContext.containsKey(lastIdKey) ? executionContext.getLong(lastIdKey) : null;
+            Map<String, Object> values = new HashMap<>(parameterValues);
+            values.put("resumeBefore", lastId != null ? lastId : Long.MAX_VALUE);
+            setParameterValues(values);
+            super.open(new ExecutionContext());
+        }
+
+        @Override
+        protected User doRead() throws Exception {
+            User user = super.doRead();
+            if (user != null) {
+                lastId = user.getId();
+            }
+            return user;
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            super.update(executionContext);
+            if (lastId != null) {
+                executionContext.putLong(getExecutionContextKey(LAST_ID_KEY), lastId);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.kcs.batch_sample.batch.staging;
+
+import java.io.IOException;
+
+/**
+ * A request body that is not a well-formed JSON object, found while staging it.
+ */
+public class InvalidPayloadException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidPayloadException(String message) {
+        super(message);
+    }
+
+    public InvalidPayloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.kcs.batch_sample.batch.staging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the staged payload, and the validated copy derived from it, once the job completed.
+ * Failed executions keep their payloads; reject reports are always kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadCleanupListener implements JobExecutionListener {
+
+    private final PayloadStore payloadStore;
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return;
+        }
+        String payloadId = jobExecution.getJobParameters().getString(PayloadStore.PAYLOAD_ID_PARAMETER);
+        if (payloadId != null) {
+            payloadStore.delete(payloadId);
+        }
+        String validatedPayloadId = jobExecution.getExecutionContext().getString(PayloadStore.VALIDATED_PAYLOAD_ID_KEY, null);
+        if (validatedPayloadId != null) {
+            payloadStore.delete(validatedPayloadId);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.kcs.batch_sample.batch.staging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.regex.Pattern;
+
+/**
+ * Spools request payloads to local files so that only a short payload id has to travel
+ * through JobParameters. Step-scoped readers stream the payload back from {@link #resource(String)}.
+ */
+@Component
+@Slf4j
+public class PayloadStore {
+
+    public static final String PAYLOAD_ID_PARAMETER = "payloadId";
+    /** Job execution context key of the payload that holds only the records which passed validation. */
+    public static final String VALIDATED_PAYLOAD_ID_KEY = "validatedPayloadId";
+
+    private static final Pattern PAYLOAD_ID_PATTERN = Pattern.compile("[0-9a-f\\-]{36}");
+
+    private final ObjectMapper objectMapper;
+    private final Path stagingDirectory;
+
+    public PayloadStore(ObjectMapper objectMapper,
+                        @Value("${app.batch.staging.directory:${java.io.tmpdir}/batch-sample/staging}") String stagingDirectory)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.stagingDirectory = Files.createDirectories(Path.of(stagingDirectory));
+    }
+
+    public String stage(Object payload) throws IOException {
+        return stage(out -> objectMapper.writeValue(out, payload));
+    }
+
+    /**
+     * Copies a raw request body to the spool token by token, so a body that is not one well-formed JSON
+     * object is turned away before a job is launched for it; memory use does not grow with its size.
+     *
+     * @throws InvalidPayloadException if the body is not a well-formed JSON object; nothing is staged
+     */
+    public String stage(InputStream payload) throws IOException {
+        return stage(out -> copyJson(payload, out));
+    }
+
+    /**
+     * Stages whatever the writer produces, e.g. a payload derived from another staged payload.
+     * The payload only becomes visible under its id once the writer returned.
+     */
+    public String stage(PayloadWriter payloadWriter) throws IOException {
+        String payloadId = UUID.randomUUID().toString();
+        Path tempFile = Files.createTempFile(stagingDirectory, payloadId, ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            payloadWriter.writeTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, path(payloadId), StandardCopyOption.ATOMIC_MOVE);
+        log.info("Staged payload {} ({} bytes)", payloadId, Files.size(path(payloadId)));
+        return payloadId;
+    }
+
+    public <T> T read(String payloadId, Class<T> type) throws IOException {
+        return objectMapper.readValue(path(payloadId).toFile(), type);
+    }
+
+    public Resource resource(String payloadId) {
+        return new FileSystemResource(path(payloadId));
+    }
+
+    public void delete(String payloadId) {
+        try {
+            if (Files.deleteIfExists(path(payloadId))) {
+                log.info("Deleted staged payload {}", payloadId);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete staged payload {}", payloadId, e);
+        }
+    }
+
+    /**
+     * Deletes every staged file last modified before the cutoff: payloads kept by failed executions,
+     * reject reports, journals and temporary files of interrupted stagings.
+     *
+     * @return the number of files deleted
+     */
+    public int purge(Instant cutoff) throws IOException {
+        List<Path> expired;
+        try (Stream<Path> files = Files.list(stagingDirectory)) {
+            expired = files.filter(file -> isModifiedBefore(file, cutoff)).toList();
+        }
+        int deleted = 0;
+        for (Path file : expired) {
+            try {
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete staged file {}", file, e);
+            }
+        }
+        log.info("Deleted {} staged files modified before {}", deleted, cutoff);
+        return deleted;
+    }
+
+    private static boolean isModifiedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            // Deleted concurrently
+            return false;
+        }
+    }
+
+    /**
+     * Location of the reject report written while validating the given payload. It is kept next to the
+     * payload but outlives it, so rejects can still be fetched after the job completed.
+     */
+    public Path rejectReport(String payloadId) {
+        return path(payloadId).resolveSibling(payloadId + ".rejects.jsonl");
+    }
+
+    /**
+     * Location of an append-only journal kept for the given payload, e.g. the ids an import inserted.
+     */
+    public Path journal(String payloadId, String name) {
+        return path(payloadId).resolveSibling(payloadId + "." + name + ".journal");
+    }
+
+    private void copyJson(InputStream in, OutputStream out) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        try (JsonParser parser = factory.createParser(in);
+             JsonGenerator generator = factory.createGenerator(out)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidPayloadException("Expected a JSON object at the root of the payload");
+            }
+            generator.copyCurrentStructure(parser);
+            if (parser.nextToken() != null) {
+                throw new InvalidPayloadException("Unexpected content after the JSON object of the payload");
+            }
+        } catch (StreamReadException e) {
+            JsonLocation location = e.getLocation();
+            throw new InvalidPayloadException(String.format("Malformed JSON payload at line %d, column %d: %s",
+                    location.getLineNr(), location.getColumnNr(), e.getOriginalMessage()), e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private Path path(String payloadId) {
+        if (payloadId == null || !PAYLOAD_ID_PATTERN.matcher(payloadId).matches()) {
+            throw new IllegalArgumentException("Invalid payload id: " + payloadId);
+        }
+        return stagingDirectory.resolve(payloadId + ".json");
+    }
+}
@@ -0,0 +1,129 @@
+package com.kcs.batch_sample.batch.tasklet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes the Spring Batch metadata of job executions that ended before the cutoff, in windows of
+ * {@code batchSize} execution ids. END_TIME has no index, so it is only scanned once, on the first call,
+ * for the id range of the executions to purge; every call then selects one window by primary key and
+ * keeps the executions in it that ended after the cutoff or are still running. TaskletStep commits every
+ * call in its own transaction together with the window reached, so each batch only locks the rows it
+ * deletes and a restart resumes after the last window.
+ * <p>
+ * Step execution contexts, step executions, job execution contexts, parameters and the executions are
+ * deleted in that order, then the job instances left without executions. Rows deleted per table are
+ * added up in the step's ExecutionContext under {@value #DELETED_KEY_PREFIX}{@code <table>}.
+ */
+@Slf4j
+public class MetadataPurgeTasklet implements Tasklet {
+
+    public static final String DELETED_KEY_PREFIX = "purge.deleted.";
+    public static final String LAST_ID_KEY = "purge.lastId";
+    public static final String MAX_ID_KEY = "purge.maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String tablePrefix;
+    private final LocalDateTime cutoff;
+    private final int batchSize;
+
+    public MetadataPurgeTasklet(JdbcTemplate jdbcTemplate, String tablePrefix, LocalDateTime cutoff, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.tablePrefix = tablePrefix;
+        this.cutoff = cutoff;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        if (!executionContext.containsKey(MAX_ID_KEY) && !captureBounds(executionContext)) {
+            return RepeatStatus.FINISHED;
+        }
+
+        long lastId = executionContext.getLong(LAST_ID_KEY);
+        long maxId = executionContext.getLong(MAX_ID_KEY);
+        if (lastId >= maxId) {
+            return RepeatStatus.FINISHED;
+        }
+        long upper = Math.min(maxId, lastId + batchSize);
+        List<Long> executionIds = new ArrayList<>(batchSize);
+        Set<Long> instanceIds = new LinkedHashSet<>();
+        jdbcTemplate.query(table("SELECT JOB_EXECUTION_ID, JOB_INSTANCE_ID FROM %JOB_EXECUTION "
+                        + "WHERE JOB_EXECUTION_ID BETWEEN ? AND ? AND END_TIME < ?"),
+                rs -> {
+                    executionIds.add(rs.getLong(1));
+                    instanceIds.add(rs.getLong(2));
+                },
+                lastId + 1, upper, cutoff);
+        executionContext.putLong(LAST_ID_KEY, upper);
+        RepeatStatus status = upper >= maxId ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+        if (executionIds.isEmpty()) {
+            return status;
+        }
+
+        Map<String, List<Long>> executions = Map.of("ids", executionIds);
+        int deleted = delete(executionContext, "STEP_EXECUTION_CONTEXT",
+                "DELETE FROM %STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN "
+                        + "(SELECT STEP_EXECUTION_ID FROM %STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids))", executions)
+                + delete(executionContext, "STEP_EXECUTION", "DELETE FROM %STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)", executions)
+                + delete(executionContext, "JOB_EXECUTION_CONTEXT", "DELETE FROM %JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (:ids)", executions)
+                + delete(executionContext, "JOB_EXECUTION_PARAMS", "DELETE FROM %JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:ids)", executions)
+                + delete(executionContext, "JOB_EXECUTION", "DELETE FROM %JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)", executions)
+                + delete(executionContext, "JOB_INSTANCE", "DELETE FROM %JOB_INSTANCE WHERE JOB_INSTANCE_ID IN (:ids) "
+                        + "AND NOT EXISTS (SELECT 1 FROM %JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = %JOB_INSTANCE.JOB_INSTANCE_ID)",
+                        Map.of("ids", instanceIds));
+        contribution.incrementWriteCount(deleted);
+        log.debug("Purged {} job executions ended before {} in ({}, {}], {} rows", executionIds.size(), cutoff,
+                lastId, upper, deleted);
+
+        return status;
+    }
+
+    private boolean captureBounds(ExecutionContext executionContext) {
+        Long[] bounds = jdbcTemplate.queryForObject(
+                table("SELECT MIN(JOB_EXECUTION_ID), MAX(JOB_EXECUTION_ID) FROM %JOB_EXECUTION WHERE END_TIME < ?"),
+                (rs, rowNum) -> new Long[]{
+                        rs.getObject(1) == null ? null : rs.getLong(1),
+                        rs.getObject(2) == null ? null : rs.getLong(2)},
+                cutoff);
+        if (bounds == null || bounds[0] == null) {
+            log.info("No job executions ended before {}, nothing to purge", cutoff);
+            return false;
+        }
+        executionContext.putLong(LAST_ID_KEY, bounds[0] - 1);
+        executionContext.putLong(MAX_ID_KEY, bounds[1]);
+        log.info("Purging job executions ended before {} among ids [{}, {}] in windows of {}", cutoff, bounds[0],
+                bounds[1], batchSize);
+        return true;
+    }
+
+    private int delete(ExecutionContext executionContext, String table, String sql, Map<String, ?> parameters) {
+        int deleted = namedParameterJdbcTemplate.update(table(sql), parameters);
+        String key = DELETED_KEY_PREFIX + tablePrefix + table;
+        executionContext.putLong(key, executionContext.getLong(key, 0L) + deleted);
+        return deleted;
+    }
+
+    private String table(String sql) {
+        return sql.replace("%", tablePrefix);
+    }
+}
@@ -0,0 +1,83 @@
+package com.kcs.batch_sample.batch.tasklet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Set-based alternative to a read/process/write step for updates that can be derived from the row itself.
+ * Each call runs {@code updateSql} once for the next {@code rangeSize} keys, e.g.
+ * {@code UPDATE users SET email = CONCAT('user', user_id, '@example.com') WHERE user_id BETWEEN ? AND ?}.
+ * <p>
+ * TaskletStep commits every call in its own transaction together with the step's ExecutionContext,
+ * so the last finished key is persisted atomically with the rows it covers and a restart resumes
+ * right after it. The key bounds are captured on the first call and kept for restarts.
+ */
+@Slf4j
+public class RangeUpdateTasklet implements Tasklet {
+
+    public static final String LAST_ID_KEY = "rangeUpdate.lastId";
+    public static final String MAX_ID_KEY = "rangeUpdate.maxId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String keyColumn;
+    private final String updateSql;
+    private final long rangeSize;
+
+    /**
+     * @param updateSql update statement whose first and second parameters are the inclusive key bounds
+     */
+    public RangeUpdateTasklet(JdbcTemplate jdbcTemplate, String table, String keyColumn, String updateSql, long rangeSize) {
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("rangeSize must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.updateSql = updateSql;
+        this.rangeSize = rangeSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        if (!executionContext.containsKey(MAX_ID_KEY) && !captureBounds(executionContext)) {
+            return RepeatStatus.FINISHED;
+        }
+
+        long lastId = executionContext.getLong(LAST_ID_KEY);
+        long maxId = executionContext.getLong(MAX_ID_KEY);
+        if (lastId >= maxId) {
+            return RepeatStatus.FINISHED;
+        }
+
+        long upper = Math.min(maxId, lastId + rangeSize);
+        int updated = jdbcTemplate.update(updateSql, lastId + 1, upper);
+        contribution.incrementWriteCount(updated);
+        executionContext.putLong(LAST_ID_KEY, upper);
+        log.debug("Updated {} rows of {} in ({}, {}]", updated, table, lastId, upper);
+
+        return upper >= maxId ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    private boolean captureBounds(ExecutionContext executionContext) {
+        Long[] bounds = jdbcTemplate.queryForObject(
+                "SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM " + table,
+                (rs, rowNum) -> new Long[]{
+                        rs.getObject(1) == null ? null : rs.getLong(1),
+                        rs.getObject(2) == null ? null : rs.getLong(2)});
+        if (bounds == null || bounds[0] == null) {
+            log.info("{} is empty, nothing to update", table);
+            return false;
+        }
+        executionContext.putLong(LAST_ID_KEY, bounds[0] - 1);
+        executionContext.putLong(MAX_ID_KEY, bounds[1]);
+        log.info("Set-based update of {} over {} [{}, {}] in ranges of {}", table, keyColumn, bounds[0], bounds[1], rangeSize);
+        return true;
+    }
+}
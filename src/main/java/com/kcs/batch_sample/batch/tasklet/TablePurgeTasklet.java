@@ -0,0 +1,64 @@
+package com.kcs.batch_sample.batch.tasklet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes the rows of a table whose {@code timestampColumn} is before the cutoff, up to {@code batchSize}
+ * rows per call, each call in its own transaction. The keys of a batch are selected first and the rows
+ * deleted by key, so every DELETE only locks the rows it removes. The rows deleted are added up in the
+ * step's ExecutionContext under {@link MetadataPurgeTasklet#DELETED_KEY_PREFIX}{@code <table>}.
+ */
+@Slf4j
+public class TablePurgeTasklet implements Tasklet {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String table;
+    private final String selectSql;
+    private final String deleteSql;
+    private final LocalDateTime cutoff;
+    private final int batchSize;
+
+    public TablePurgeTasklet(JdbcTemplate jdbcTemplate, String table, String keyColumn, String timestampColumn,
+                             LocalDateTime cutoff, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.table = table;
+        this.selectSql = "SELECT " + keyColumn + " FROM " + table + " WHERE " + timestampColumn + " < ? "
+                + "ORDER BY " + keyColumn + " LIMIT ?";
+        this.deleteSql = "DELETE FROM " + table + " WHERE " + keyColumn + " IN (:keys)";
+        this.cutoff = cutoff;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        List<Object> keys = jdbcTemplate.queryForList(selectSql, Object.class, cutoff, batchSize);
+        if (keys.isEmpty()) {
+            return RepeatStatus.FINISHED;
+        }
+
+        int deleted = namedParameterJdbcTemplate.update(deleteSql, Map.of("keys", keys));
+        contribution.incrementWriteCount(deleted);
+        ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        String key = MetadataPurgeTasklet.DELETED_KEY_PREFIX + table;
+        executionContext.putLong(key, executionContext.getLong(key, 0L) + deleted);
+        log.debug("Purged {} rows of {} older than {}", deleted, table, cutoff);
+
+        return keys.size() < batchSize ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+}
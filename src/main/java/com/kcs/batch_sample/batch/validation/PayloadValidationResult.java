@@ -0,0 +1,14 @@
+package com.kcs.batch_sample.batch.validation;
+
+import java.nio.file.Path;
+
+/**
+ * @param rejectReport the JSON-lines reject report, null when every record passed
+ */
+public record PayloadValidationResult(
+        String validatedPayloadId,
+        long total,
+        long rejected,
+        Path rejectReport
+) {
+}
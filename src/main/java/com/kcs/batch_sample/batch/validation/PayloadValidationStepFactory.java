@@ -0,0 +1,69 @@
+package com.kcs.batch_sample.batch.validation;
+
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.listener.ExecutionContextPromotionListener;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Builds the step that validates a staged payload ahead of the chunk-oriented steps of a job.
+ * <p>
+ * The step publishes the id of the payload holding only the clean records as
+ * {@code jobExecutionContext['validatedPayloadId']}; step-scoped readers bind to it instead of the
+ * {@code payloadId} job parameter. Rejected records are counted as filtered by this step and listed in the
+ * reject report of {@link PayloadStore#rejectReport(String)}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadValidationStepFactory {
+
+    public static final String REJECT_COUNT_KEY = "rejectCount";
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final PayloadValidator payloadValidator;
+    private final BatchLogSink batchLogSink;
+    private final BatchMetricsListener batchMetricsListener;
+
+    public Step validationStep(String stepName) {
+        ExecutionContextPromotionListener promotionListener = new ExecutionContextPromotionListener();
+        promotionListener.setKeys(new String[]{PayloadStore.VALIDATED_PAYLOAD_ID_KEY, REJECT_COUNT_KEY});
+        promotionListener.setStrict(true);
+
+        return new StepBuilder(stepName, jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+                    String payloadId = stepExecution.getJobParameters().getString(PayloadStore.PAYLOAD_ID_PARAMETER);
+                    PayloadValidationResult result = payloadValidator.validate(payloadId);
+
+                    ExecutionContext executionContext = stepExecution.getExecutionContext();
+                    executionContext.putString(PayloadStore.VALIDATED_PAYLOAD_ID_KEY, result.validatedPayloadId());
+                    executionContext.putLong(REJECT_COUNT_KEY, result.rejected());
+                    contribution.incrementFilterCount(result.rejected());
+
+                    if (result.rejected() > 0) {
+                        batchMetricsListener.recordRejects(stepExecution.getJobExecution().getJobInstance().getJobName(),
+                                stepName, result.rejected());
+                        batchLogSink.record(stepExecution.getJobExecution(), stepName, "Records Rejected",
+                                String.format("Total: %d, Rejected: %d, Report: %s",
+                                        result.total(), result.rejected(), result.rejectReport()));
+                    }
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .listener(promotionListener)
+                .listener((StepExecutionListener) batchMetricsListener)
+                .listener((ChunkListener) batchMetricsListener)
+                .build();
+    }
+}
@@ -0,0 +1,275 @@
+package com.kcs.batch_sample.batch.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.dto.BoardInfo;
+import com.kcs.batch_sample.dto.UserInfo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Validates the {@code users} and {@code boards} arrays of a staged payload before any transaction is opened.
+ * <p>
+ * The payload is streamed in blocks. The records of a block are bound and validated in parallel on the
+ * processing executor while the next block is parsed; cheap field checks reject the obvious cases before
+ * the bean {@link Validator} runs. Clean records are written, in their original order, to a new staged
+ * payload with the same layout. Rejects go to a JSON-lines report, one
+ * {@code {"array", "index", "errors", "record"}} object per line.
+ */
+@Component
+@Slf4j
+public class PayloadValidator {
+
+    private static final Map<String, RecordRule<?>> RULES = Map.of(
+            "users", new RecordRule<>(UserInfo.class, PayloadValidator::checkUser),
+            "boards", new RecordRule<>(BoardInfo.class, PayloadValidator::checkBoard));
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PayloadStore payloadStore;
+    private final ThreadPoolTaskExecutor executor;
+    private final int blockSize;
+
+    public PayloadValidator(ObjectMapper objectMapper,
+                            Validator validator,
+                            PayloadStore payloadStore,
+                            @Qualifier("processingTaskExecutor") ThreadPoolTaskExecutor executor,
+                            @Value("${app.batch.validation.block-size:4096}") int blockSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.payloadStore = payloadStore;
+        this.executor = executor;
+        this.blockSize = blockSize;
+    }
+
+    public PayloadValidationResult validate(String payloadId) throws IOException {
+        Path rejectReport = payloadStore.rejectReport(payloadId);
+        Files.deleteIfExists(rejectReport);
+        Run run = new Run(rejectReport);
+        try (InputStream in = payloadStore.resource(payloadId).getInputStream()) {
+            String validatedPayloadId = payloadStore.stage(out -> run.copy(in, out));
+            log.info("Validated payload {}: {} records, {} rejected", payloadId, run.total, run.rejected);
+            return new PayloadValidationResult(validatedPayloadId, run.total, run.rejected,
+                    run.rejected > 0 ? rejectReport : null);
+        } finally {
+            run.closeRejects();
+        }
+    }
+
+    private static String checkUser(UserInfo user) {
+        if (!StringUtils.hasText(user.username())) {
+            return "username: must not be blank";
+        }
+        String email = user.email();
+        int at = email == null ? -1 : email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) {
+            return "email: must be a well-formed email address";
+        }
+        return null;
+    }
+
+    private static String checkBoard(BoardInfo board) {
+        if (!StringUtils.hasText(board.title())) {
+            return "title: must not be blank";
+        }
+        if (!StringUtils.hasText(board.userUsername())) {
+            return "userUsername: must not be blank";
+        }
+        return null;
+    }
+
+    /**
+     * @param fastCheck returns the first violation found by plain field checks, or null to hand the
+     *                  record to the bean validator
+     */
+    private record RecordRule<T>(Class<T> type, Function<T, String> fastCheck) {
+    }
+
+    private record Outcome(Object record, List<String> errors) {
+    }
+
+    private record Block(String array, long firstIndex, List<JsonNode> nodes, CompletableFuture<Outcome[]> outcomes) {
+    }
+
+    private final class Run {
+        private final Path rejectReport;
+        private OutputStream rejectOut;
+        private JsonGenerator rejects;
+        private long total;
+        private long rejected;
+
+        private Run(Path rejectReport) {
+            this.rejectReport = rejectReport;
+        }
+
+        private void copy(InputStream in, OutputStream out) throws IOException {
+            try (JsonParser parser = objectMapper.getFactory().createParser(in);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new ItemStreamException("Expected a JSON object at the root of the payload");
+                }
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    generator.writeFieldName(field);
+                    RecordRule<?> rule = RULES.get(field);
+                    if (rule != null && value == JsonToken.START_ARRAY) {
+                        copyArray(field, rule, parser, generator);
+                    } else {
+                        generator.copyCurrentStructure(parser);
+                    }
+                }
+                generator.writeEndObject();
+            }
+        }
+
+        private void copyArray(String array, RecordRule<?> rule, JsonParser parser, JsonGenerator generator)
+                throws IOException {
+            generator.writeStartArray();
+            long index = 0;
+            Block pending = null;
+            List<JsonNode> nodes = new ArrayList<>(blockSize);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                nodes.add(parser.readValueAsTree());
+                if (nodes.size() == blockSize) {
+                    Block block = submit(array, index, nodes, rule);
+                    index += nodes.size();
+                    nodes = new ArrayList<>(blockSize);
+                    if (pending != null) {
+                        write(pending, generator);
+                    }
+                    pending = block;
+                }
+            }
+            if (pending != null) {
+                write(pending, generator);
+            }
+            if (!nodes.isEmpty()) {
+                write(submit(array, index, nodes, rule), generator);
+            }
+            generator.writeEndArray();
+        }
+
+        private Block submit(String array, long firstIndex, List<JsonNode> nodes, RecordRule<?> rule) {
+            Outcome[] outcomes = new Outcome[nodes.size()];
+            int slices = Math.min(executor.getMaxPoolSize(), Math.max(1, nodes.size() / 64));
+            int sliceSize = (nodes.size() + slices - 1) / slices;
+            List<CompletableFuture<Void>> futures = new ArrayList<>(slices);
+            for (int from = 0; from < nodes.size(); from += sliceSize) {
+                int start = from;
+                int end = Math.min(nodes.size(), from + sliceSize);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = start; i < end; i++) {
+                        outcomes[i] = check(nodes.get(i), rule);
+                    }
+                }, executor));
+            }
+            return new Block(array, firstIndex, nodes, CompletableFuture
+                    .allOf(futures.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> outcomes));
+        }
+
+        private <T> Outcome check(JsonNode node, RecordRule<T> rule) {
+            T record;
+            try {
+                record = objectMapper.treeToValue(node, rule.type());
+            } catch (JsonProcessingException e) {
+                return new Outcome(null, List.of("malformed record: " + e.getOriginalMessage()));
+            }
+            if (record == null) {
+                return new Outcome(null, List.of("record must not be null"));
+            }
+            String violation = rule.fastCheck().apply(record);
+            if (violation != null) {
+                return new Outcome(null, List.of(violation));
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(record);
+            if (violations.isEmpty()) {
+                return new Outcome(record, null);
+            }
+            return new Outcome(null, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .toList());
+        }
+
+        private void write(Block block, JsonGenerator generator) throws IOException {
+            Outcome[] outcomes;
+            try {
+                outcomes = block.outcomes().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+            for (int i = 0; i < outcomes.length; i++) {
+                total++;
+                if (outcomes[i].errors() == null) {
+                    generator.writeObject(outcomes[i].record());
+                } else {
+                    reject(block.array(), block.firstIndex() + i, outcomes[i].errors(), block.nodes().get(i));
+                }
+            }
+        }
+
+        private void reject(String array, long index, List<String> errors, JsonNode record) throws IOException {
+            if (rejects == null) {
+                rejectOut = Files.newOutputStream(rejectReport);
+                rejects = objectMapper.getFactory().createGenerator(rejectOut);
+                rejects.setRootValueSeparator(null);
+            }
+            rejected++;
+            rejects.writeStartObject();
+            rejects.writeStringField("array", array);
+            rejects.writeNumberField("index", index);
+            rejects.writeArrayFieldStart("errors");
+            for (String error : errors) {
+                rejects.writeString(error);
+            }
+            rejects.writeEndArray();
+            rejects.writeObjectField("record", record);
+            rejects.writeEndObject();
+            rejects.writeRaw('\n');
+        }
+
+        private void closeRejects() {
+            if (rejects == null) {
+                return;
+            }
+            try {
+                rejects.close();
+                rejectOut.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write reject report " + rejectReport, e);
+            }
+        }
+    }
+}
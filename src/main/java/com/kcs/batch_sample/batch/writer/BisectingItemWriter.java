@@ -0,0 +1,124 @@
+package com.kcs.batch_sample.batch.writer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Isolates failing items of a chunk without falling back to one transaction per item.
+ * <p>
+ * The whole chunk is written inside a JDBC savepoint of the chunk transaction. If that fails with an
+ * exception the {@code skipPolicy} would skip, the savepoint is rolled back and each half is retried the
+ * same way, recursively, until the failing items are isolated. k bad items in a chunk of n cost about
+ * 2k·log2(n) extra writes, and the good items commit with the chunk as usual.
+ * <p>
+ * Each isolated item is checked against the {@code skipPolicy} with the skips taken so far, so the step's
+ * skip limit holds; pass the policy the step is built with. A policy such as LimitCheckingItemSkipPolicy
+ * signals the limit by throwing SkipLimitExceededException, which this writer lets through. Isolated items are removed from the chunk as
+ * skips, so fault-tolerant steps call {@code onSkipInWrite} for them. The step does not count skips its
+ * writer took, so they are added to the write skip count once the chunk transaction commits, and a chunk
+ * that rolls back adds none. The delegate must be safe to call repeatedly for
+ * the same items inside a rolled back savepoint and must write through {@code dataSource} in the chunk
+ * transaction, which holds for the JDBC writers in this package. Savepoints are set on the transaction's
+ * connection directly because JpaTransactionManager does not offer nested transactions with Hibernate.
+ */
+@Slf4j
+public class BisectingItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final DataSource dataSource;
+    private final SkipPolicy skipPolicy;
+
+    public BisectingItemWriter(ItemWriter<T> delegate, DataSource dataSource, SkipPolicy skipPolicy) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+        this.skipPolicy = skipPolicy;
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        Map<T, Exception> failures = new IdentityHashMap<>();
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            write(connection, new ArrayList<>(chunk.getItems()), failures, stepExecution);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        if (failures.isEmpty()) {
+            return;
+        }
+
+        for (Chunk<? extends T>.ChunkIterator iterator = chunk.iterator(); iterator.hasNext(); ) {
+            Exception failure = failures.get(iterator.next());
+            if (failure != null) {
+                iterator.remove(failure);
+            }
+        }
+        if (stepExecution != null) {
+            recordWriteSkips(stepExecution, failures.size());
+        }
+        log.info("Isolated {} failing item(s) in a chunk of {}", failures.size(), chunk.size() + failures.size());
+    }
+
+    private void write(Connection connection, List<T> items, Map<T, Exception> failures, StepExecution stepExecution)
+            throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+        // Outside the try: a connection that cannot take a savepoint is not an item failure
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            delegate.write(new Chunk<>(items));
+            connection.releaseSavepoint(savepoint);
+        } catch (Exception e) {
+            connection.rollback(savepoint);
+            // A count of -1 only asks whether the exception is skippable at all, no limit applies to it yet
+            if (!skipPolicy.shouldSkip(e, -1)) {
+                throw e;
+            }
+            if (items.size() == 1) {
+                long skipCount = (stepExecution != null ? stepExecution.getSkipCount() : 0) + failures.size();
+                // Over the limit the policy throws SkipLimitExceededException rather than returning false,
+                // failing the chunk like a skip the step itself refused
+                if (!skipPolicy.shouldSkip(e, skipCount)) {
+                    throw e;
+                }
+                failures.put(items.get(0), e);
+                return;
+            }
+            int middle = items.size() / 2;
+            write(connection, new ArrayList<>(items.subList(0, middle)), failures, stepExecution);
+            write(connection, new ArrayList<>(items.subList(middle, items.size())), failures, stepExecution);
+        }
+    }
+
+    private void recordWriteSkips(StepExecution stepExecution, int count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + count);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + count);
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.Board;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes boards whose user is only known by username, resolving the user ids of a whole chunk
+ * through the {@link UserIdResolver} before the boards are batch inserted. Boards may reference users
+ * of the same import as well as users that already existed; a board referencing neither fails the chunk
+ * with an {@link UnknownUserException}, which the step can skip.
+ */
+@Component
+@RequiredArgsConstructor
+public class BoardImportWriter implements ItemWriter<Board> {
+
+    private final UserIdResolver userIdResolver;
+    private final BoardJdbcBatchWriter boardJdbcBatchWriter;
+
+    @Override
+    public void write(Chunk<? extends Board> chunk) throws Exception {
+        Set<String> usernames = new LinkedHashSet<>();
+        for (Board board : chunk) {
+            usernames.add(board.getUser().getUsername());
+        }
+
+        Map<String, Long> userIds = userIdResolver.resolve(usernames);
+        for (Board board : chunk) {
+            Long userId = userIds.get(board.getUser().getUsername());
+            if (userId == null) {
+                throw new UnknownUserException("User not found for board: " + board.getTitle());
+            }
+            board.getUser().setId(userId);
+        }
+        boardJdbcBatchWriter.write(chunk);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.Board;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BoardJdbcBatchWriter extends JdbcBatchInsertItemWriter<Board> {
+
+    private static final String INSERT_SQL = "INSERT INTO board (board_id, title, content, user_id) VALUES (?, ?, ?, ?)";
+
+    public BoardJdbcBatchWriter(JdbcTemplate jdbcTemplate, PooledIdAllocator idAllocator) {
+        super(jdbcTemplate, idAllocator, INSERT_SQL,
+                (board, ps) -> {
+                    ps.setLong(1, board.getId());
+                    ps.setString(2, board.getTitle());
+                    ps.setString(3, board.getContent());
+                    ps.setLong(4, board.getUser().getId());
+                },
+                Board::getId,
+                Board::setId);
+    }
+}
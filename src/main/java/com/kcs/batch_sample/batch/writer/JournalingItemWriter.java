@@ -0,0 +1,46 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.batch.compensation.ImportJournal;
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Journals the ids of the rows the delegate inserted, after the delegate wrote the chunk and before
+ * the chunk commits, so a failed import can be compensated.
+ */
+public class JournalingItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final ImportJournal importJournal;
+    private final String payloadId;
+    private final JournaledTable table;
+    private final Function<T, Long> idExtractor;
+
+    public JournalingItemWriter(ItemWriter<T> delegate, ImportJournal importJournal, String payloadId,
+                                JournaledTable table, Function<T, Long> idExtractor) {
+        this.delegate = delegate;
+        this.importJournal = importJournal;
+        this.payloadId = payloadId;
+        this.table = table;
+        this.idExtractor = idExtractor;
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        delegate.write(chunk);
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (T item : chunk) {
+            // Items the delegate left unwritten have no id
+            Long id = idExtractor.apply(item);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        importJournal.append(payloadId, table, ids);
+    }
+}
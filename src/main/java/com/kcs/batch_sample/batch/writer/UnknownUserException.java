@@ -0,0 +1,13 @@
+package com.kcs.batch_sample.batch.writer;
+
+/**
+ * A board whose username matches no user, neither one of the same import nor one that already existed.
+ */
+public class UnknownUserException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnknownUserException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,41 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class UserJdbcBatchWriter extends JdbcBatchInsertItemWriter<User> {
+
+    private static final String INSERT_SQL = "INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)";
+
+    private final UserIdResolver userIdResolver;
+
+    public UserJdbcBatchWriter(JdbcTemplate jdbcTemplate, PooledIdAllocator idAllocator, UserIdResolver userIdResolver) {
+        super(jdbcTemplate, idAllocator, INSERT_SQL,
+                (user, ps) -> {
+                    ps.setLong(1, user.getId());
+                    ps.setString(2, user.getUsername());
+                    ps.setString(3, user.getEmail());
+                },
+                User::getId,
+                User::setId);
+        this.userIdResolver = userIdResolver;
+    }
+
+    @Override
+    public void write(Chunk<? extends User> chunk) throws Exception {
+        super.write(chunk);
+        List<String> usernames = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            usernames.add(user.getUsername());
+        }
+        userIdResolver.invalidate(usernames);
+    }
+}
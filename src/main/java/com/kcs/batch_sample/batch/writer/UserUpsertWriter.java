@@ -0,0 +1,98 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Inserts users or updates the email of the user with the same username, as one JDBC batch per chunk.
+ * <p>
+ * The current emails of the chunk's usernames are read first with {@code IN} queries of up to
+ * {@value #SELECT_BATCH_SIZE} names, and users whose row already matches are left out, so re-running
+ * an import writes nothing. The upsert statement is chosen for the database in use; an existing row
+ * keeps its id.
+ */
+@Component
+public class UserUpsertWriter extends JdbcBatchInsertItemWriter<User> {
+
+    private static final String MYSQL_UPSERT_SQL = "INSERT INTO users (user_id, username, email) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE email = VALUES(email)";
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO users (user_id, username, email) VALUES (?, ?, ?) "
+            + "ON CONFLICT (username) DO UPDATE SET email = EXCLUDED.email";
+    private static final String MERGE_SQL = "MERGE INTO users u USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) "
+            + "AS s (user_id, username, email) ON u.username = s.username "
+            + "WHEN MATCHED THEN UPDATE SET email = s.email "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, username, email) VALUES (s.user_id, s.username, s.email)";
+    private static final int SELECT_BATCH_SIZE = 1000;
+    private static final String SELECT_EMAILS_SQL = "SELECT username, email FROM users WHERE username IN (:usernames)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final UserIdResolver userIdResolver;
+
+    public UserUpsertWriter(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                            PooledIdAllocator idAllocator, UserIdResolver userIdResolver, DataSource dataSource)
+            throws MetaDataAccessException {
+        super(jdbcTemplate, idAllocator, upsertSql(DatabaseType.fromMetaData(dataSource)),
+                (user, ps) -> {
+                    ps.setLong(1, user.getId());
+                    ps.setString(2, user.getUsername());
+                    ps.setString(3, user.getEmail());
+                },
+                User::getId,
+                User::setId);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.userIdResolver = userIdResolver;
+    }
+
+    private static String upsertSql(DatabaseType databaseType) {
+        return switch (databaseType) {
+            case MYSQL, MARIADB -> MYSQL_UPSERT_SQL;
+            case POSTGRES -> POSTGRES_UPSERT_SQL;
+            case H2, HSQL -> MERGE_SQL;
+            default -> throw new IllegalStateException("Upserts are not supported on " + databaseType);
+        };
+    }
+
+    @Override
+    public void write(Chunk<? extends User> chunk) throws Exception {
+        List<String> usernames = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            usernames.add(user.getUsername());
+        }
+        if (usernames.isEmpty()) {
+            return;
+        }
+        Map<String, String> currentEmails = new HashMap<>(usernames.size() * 2);
+        for (int from = 0; from < usernames.size(); from += SELECT_BATCH_SIZE) {
+            List<String> batch = usernames.subList(from, Math.min(usernames.size(), from + SELECT_BATCH_SIZE));
+            namedParameterJdbcTemplate.query(SELECT_EMAILS_SQL, Map.of("usernames", batch), rs -> {
+                currentEmails.put(rs.getString("username"), rs.getString("email"));
+            });
+        }
+
+        List<User> changed = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            if (!Objects.equals(currentEmails.get(user.getUsername()), user.getEmail())) {
+                changed.add(user);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        super.write(new Chunk<>(changed));
+        userIdResolver.invalidate(changed.stream().map(User::getUsername).toList());
+    }
+}
@@ -0,0 +1,69 @@
+package com.kcs.batch_sample.config;
+
+import com.kcs.batch_sample.domain.IdAllocation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves every id_allocation segment past the ids already in its table.
+ * Rows created while the entities still used IDENTITY keep their ids; the first pooled
+ * block handed out afterwards starts at MAX(id) + 1. Safe to run on every node at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdAllocationInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Segment(String name, String table, String idColumn, int blockSize) {}
+
+    private static final List<Segment> SEGMENTS = List.of(
+            new Segment(IdAllocation.USERS_SEGMENT, "users", "user_id", IdAllocation.USERS_BLOCK_SIZE),
+            new Segment(IdAllocation.BOARD_SEGMENT, "board", "board_id", IdAllocation.BOARD_BLOCK_SIZE),
+            new Segment(IdAllocation.BATCH_LOG_SEGMENT, "batch_log", "id", IdAllocation.BATCH_LOG_BLOCK_SIZE)
+    );
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEGMENTS.forEach(this::alignSegment);
+    }
+
+    private void alignSegment(Segment segment) {
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + segment.idColumn() + "), 0) FROM " + segment.table(), Long.class);
+        // The pooled optimizer hands out (next_val - blockSize, next_val] for the stored value
+        long required = maxId + segment.blockSize();
+
+        int updated = jdbcTemplate.update(
+                "UPDATE " + IdAllocation.TABLE + " SET " + IdAllocation.VALUE_COLUMN + " = ?"
+                        + " WHERE " + IdAllocation.SEGMENT_COLUMN + " = ? AND " + IdAllocation.VALUE_COLUMN + " < ?",
+                required, segment.name(), required);
+        if (updated == 0) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + IdAllocation.TABLE + " WHERE " + IdAllocation.SEGMENT_COLUMN + " = ?",
+                    Integer.class, segment.name());
+            if (existing == 0) {
+                try {
+                    updated = jdbcTemplate.update(
+                            "INSERT INTO " + IdAllocation.TABLE + " (" + IdAllocation.SEGMENT_COLUMN + ", "
+                                    + IdAllocation.VALUE_COLUMN + ") VALUES (?, ?)",
+                            segment.name(), required);
+                } catch (DuplicateKeyException e) {
+                    // Another node created the segment first
+                    alignSegment(segment);
+                    return;
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Aligned id allocation segment {} to {} (max existing id {})", segment.name(), required, maxId);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kcs.batch_sample.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Limits applied by {@link com.kcs.batch_sample.service.JobAdmissionQueue} to job launches,
+ * bound from {@code app.batch.admission}; {@code jobs} overrides them per job name.
+ */
+@ConfigurationProperties(prefix = "app.batch.admission")
+public record JobAdmissionProperties(
+        @DefaultValue("4") int maxRunning,
+        @DefaultValue("2") int maxRunningPerJob,
+        @DefaultValue("50") int queueCapacity,
+        @DefaultValue("30000") long syncMaxWaitMs,
+        @DefaultValue("30") long retryAfterSeconds,
+        Map<String, JobLimit> jobs) {
+
+    public JobAdmissionProperties {
+        jobs = jobs == null ? Map.of() : Map.copyOf(jobs);
+    }
+
+    /**
+     * Per-job settings; an unset value falls back to the defaults.
+     */
+    public record JobLimit(Integer maxRunning, Integer priority) {
+    }
+
+    public int maxRunning(String jobName) {
+        JobLimit limit = jobs.get(jobName);
+        return limit != null && limit.maxRunning() != null ? limit.maxRunning() : maxRunningPerJob;
+    }
+
+    public int priority(String jobName) {
+        JobLimit limit = jobs.get(jobName);
+        return limit != null && limit.priority() != null ? limit.priority() : 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.kcs.batch_sample.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(JobAdmissionProperties.class)
+public class JobLaunchConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor jobLaunchTaskExecutor(
+            @Value("${app.batch.launcher.core-pool-size:4}") int corePoolSize,
+            @Value("${app.batch.launcher.max-pool-size:8}") int maxPoolSize,
+            @Value("${app.batch.launcher.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("job-launch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kcs.batch_sample.config;
+
+import org.springframework.batch.core.step.StepLocator;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PartitionConfig {
+
+    /**
+     * Runs partition worker steps. Keep the pool below the Hikari pool size, every worker holds
+     * a connection for the duration of its chunk.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor partitionTaskExecutor(
+            @Value("${app.batch.partition.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("partition-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Finds the worker steps of queued partitions by bean name.
+     */
+    @Bean
+    public StepLocator stepLocator() {
+        return new BeanFactoryStepLocator();
+    }
+}
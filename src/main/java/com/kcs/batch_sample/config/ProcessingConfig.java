@@ -0,0 +1,39 @@
+package com.kcs.batch_sample.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@Configuration
+public class ProcessingConfig {
+
+    /**
+     * Runs item processors for steps launched in parallel mode. The pool size is the
+     * concurrency limit shared by all such steps; it defaults to the number of cores.
+     * Once {@code queue-capacity} items wait, the submitting step thread processes the
+     * next item itself, which holds back its reader instead of piling up whole chunks.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor processingTaskExecutor(
+            @Value("${app.batch.processing.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${app.batch.processing.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        // Like CallerRunsPolicy, but rejects once shut down rather than dropping a task whose Future is awaited
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("Processing executor has been shut down");
+            }
+            task.run();
+        });
+        executor.setThreadNamePrefix("processing-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.dto.BatchLogPage;
+import com.kcs.batch_sample.dto.BatchLogSummaryDto;
+import com.kcs.batch_sample.service.BatchLogQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/batch-logs")
+@RequiredArgsConstructor
+public class BatchLogController {
+
+    private final BatchLogQueryService batchLogQueryService;
+
+    @GetMapping
+    public ResponseEntity<?> getBatchLogs(@RequestParam(required = false) String jobName,
+                                          @RequestParam(required = false) String stepName,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "100") int size) {
+        try {
+            BatchLogPage page = batchLogQueryService.find(jobName, stepName, from, to, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<BatchLogSummaryDto>> getSummary(@RequestParam(required = false) String jobName,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate lastDay = to != null ? to : LocalDate.now();
+        LocalDate firstDay = from != null ? from : lastDay.minusDays(6);
+        return ResponseEntity.ok(batchLogQueryService.summarize(jobName, firstDay, lastDay));
+    }
+}
@@ -1,17 +1,19 @@
 package com.kcs.batch_sample.controller;
 
 
-import com.kcs.batch_sample.dto.UserBoardProcessingDto;
-import com.kcs.batch_sample.dto.UserCreationDto;
+import com.kcs.batch_sample.batch.job.ImportMode;
 import com.kcs.batch_sample.service.MultiEntityProcessingService;
 import com.kcs.batch_sample.service.UserProcessingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/v1/generic")
 @RequiredArgsConstructor
@@ -21,20 +23,38 @@ public class GenericJobController {
     private final MultiEntityProcessingService multiEntityProcessingService;
 
     @PostMapping("/run-job1")
-    public String runUserJob1(@RequestBody UserCreationDto userCreationDto) throws Exception {
-        JobExecution jobExecution = userProcessingService.processUsers(userCreationDto, 10);
-        return "Chunk processing completed with status: " + jobExecution.getStatus();
+    public ResponseEntity<?> runUserJob1(InputStream userCreationPayload,
+                                         @RequestParam(defaultValue = "INSERT") ImportMode mode,
+                                         @RequestParam(defaultValue = "false") boolean parallel,
+                                         @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userProcessingService.processUsers(userCreationPayload, 10, mode, parallel, async);
+        return JobResponses.of(jobExecution, async, "Chunk processing completed with status: ");
     }
 
     @PostMapping("/run-job3")
-    public String runUserJob3(@RequestBody UserCreationDto userCreationDto) throws Exception {
-        JobExecution jobExecution = userProcessingService.processUsers(userCreationDto, Integer.MAX_VALUE);
-        return "Chunk processing completed with status: " + jobExecution.getStatus();
+    public ResponseEntity<?> runUserJob3(InputStream userCreationPayload,
+                                         @RequestParam(defaultValue = "INSERT") ImportMode mode,
+                                         @RequestParam(defaultValue = "false") boolean parallel,
+                                         @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userProcessingService.processUsers(userCreationPayload, Integer.MAX_VALUE, mode, parallel, async);
+        return JobResponses.of(jobExecution, async, "Chunk processing completed with status: ");
+    }
+
+    @PostMapping("/run-job-adaptive")
+    public ResponseEntity<?> runUserJobAdaptive(InputStream userCreationPayload,
+                                                @RequestParam(defaultValue = "INSERT") ImportMode mode,
+                                                @RequestParam(defaultValue = "false") boolean parallel,
+                                                @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userProcessingService.processUsersAdaptive(userCreationPayload, mode, parallel, async);
+        return JobResponses.of(jobExecution, async, "Chunk processing completed with status: ");
     }
 
     @PostMapping("/process-user-and-boards")
-    public String processUserAndBoards(@RequestBody UserBoardProcessingDto userBoardProcessingDto) throws Exception {
-        JobExecution jobExecution = multiEntityProcessingService.processUserAndBoards(userBoardProcessingDto, 1);
-        return "Multi-entity processing completed with status: " + jobExecution.getStatus();
+    public ResponseEntity<?> processUserAndBoards(InputStream userBoardPayload,
+                                                  @RequestParam(defaultValue = "INSERT") ImportMode mode,
+                                                  @RequestParam(defaultValue = "false") boolean atomic,
+                                                  @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = multiEntityProcessingService.processUserAndBoards(userBoardPayload, mode, atomic, async);
+        return JobResponses.of(jobExecution, async, "Multi-entity processing completed with status: ");
     }
 }
@@ -0,0 +1,18 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.batch.staging.InvalidPayloadException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers launches whose request body could not be staged as JSON with 400 Bad Request.
+ */
+@RestControllerAdvice
+public class InvalidPayloadExceptionHandler {
+
+    @ExceptionHandler(InvalidPayloadException.class)
+    public ResponseEntity<String> handleInvalidPayload(InvalidPayloadException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,18 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.service.JobAdmissionException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers launches rejected by admission control on every job endpoint.
+ */
+@RestControllerAdvice
+public class JobAdmissionExceptionHandler {
+
+    @ExceptionHandler(JobAdmissionException.class)
+    public ResponseEntity<String> handleJobAdmission(JobAdmissionException e) {
+        return JobResponses.tooManyRequests(e);
+    }
+}
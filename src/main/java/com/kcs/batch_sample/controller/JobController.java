@@ -1,12 +1,15 @@
 package com.kcs.batch_sample.controller;
 
-import com.kcs.batch_sample.dto.UserCreationDto;
+import com.kcs.batch_sample.service.HousekeepingService;
 import com.kcs.batch_sample.service.IndividualProcessingService;
 import com.kcs.batch_sample.service.UserEmailUpdateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.*;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/job")
@@ -14,16 +17,44 @@ public class JobController {
 
     private final IndividualProcessingService individualProcessingService;
     private final UserEmailUpdateService userEmailUpdateService;
+    private final HousekeepingService housekeepingService;
 
     @PostMapping("/individual-processing")
-    public String runIndividualProcessingJob(@RequestBody UserCreationDto userCreationDto) throws Exception {
-        JobExecution jobExecution = individualProcessingService.processIndividualJob(userCreationDto);
-        return "Individual Processing Job completed with status: " + jobExecution.getStatus();
+    public ResponseEntity<?> runIndividualProcessingJob(InputStream userCreationPayload,
+                                                        @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = individualProcessingService.processIndividualJob(userCreationPayload, async);
+        return JobResponses.of(jobExecution, async, "Individual Processing Job completed with status: ");
     }
 
     @GetMapping("/run-email-update-job")
-    public String runUserEmailUpdateJob() throws Exception {
-        JobExecution jobExecution = userEmailUpdateService.updateUserEmails();
-        return "User email update job completed with status: " + jobExecution.getStatus();
+    public ResponseEntity<?> runUserEmailUpdateJob(@RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userEmailUpdateService.updateUserEmails(async);
+        return JobResponses.of(jobExecution, async, "User email update job completed with status: ");
+    }
+
+    @GetMapping("/run-email-update-job/partitioned")
+    public ResponseEntity<?> runPartitionedUserEmailUpdateJob(@RequestParam(required = false) Integer gridSize,
+                                                              @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userEmailUpdateService.updateUserEmailsPartitioned(gridSize, async);
+        return JobResponses.of(jobExecution, async, "Partitioned user email update job completed with status: ");
+    }
+
+    @GetMapping("/run-email-update-job/queue-partitioned")
+    public ResponseEntity<?> runQueuePartitionedUserEmailUpdateJob(@RequestParam(required = false) Integer gridSize,
+                                                                   @RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userEmailUpdateService.updateUserEmailsQueuePartitioned(gridSize, async);
+        return JobResponses.of(jobExecution, async, "Queue-partitioned user email update job completed with status: ");
+    }
+
+    @GetMapping("/run-email-update-job/set-based")
+    public ResponseEntity<?> runSetBasedUserEmailUpdateJob(@RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = userEmailUpdateService.updateUserEmailsSetBased(async);
+        return JobResponses.of(jobExecution, async, "Set-based user email update job completed with status: ");
+    }
+
+    @GetMapping("/run-housekeeping-job")
+    public ResponseEntity<?> runHousekeepingJob(@RequestParam(defaultValue = "false") boolean async) throws Exception {
+        JobExecution jobExecution = housekeepingService.purge(async);
+        return JobResponses.of(jobExecution, async, "Housekeeping job completed with status: ");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.dto.JobExecutionStatusDto;
+import com.kcs.batch_sample.service.JobAdmissionException;
+import com.kcs.batch_sample.service.JobExecutionService;
+import com.kcs.batch_sample.service.JobLaunchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class JobExecutionController {
+
+    private final JobExecutionService jobExecutionService;
+    private final JobLaunchService jobLaunchService;
+
+    @GetMapping("/{executionId}")
+    public ResponseEntity<JobExecutionStatusDto> getJobExecution(@PathVariable long executionId) {
+        return jobExecutionService.getStatus(executionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{executionId}/rejects", produces = "application/x-ndjson")
+    public ResponseEntity<Resource> getRejectReport(@PathVariable long executionId) {
+        return jobExecutionService.getRejectReport(executionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{executionId}/restart")
+    public ResponseEntity<?> restartJobExecution(@PathVariable long executionId,
+                                                 @RequestParam(defaultValue = "false") boolean async) {
+        try {
+            return jobLaunchService.restart(executionId, async)
+                    .<ResponseEntity<?>>map(jobExecution -> JobResponses.of(jobExecution, async, "Job restarted with status: "))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (JobAdmissionException e) {
+            return JobResponses.tooManyRequests(e);
+        } catch (JobExecutionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
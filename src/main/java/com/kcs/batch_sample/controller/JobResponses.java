@@ -0,0 +1,38 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.dto.JobLaunchResponse;
+import com.kcs.batch_sample.service.JobAdmissionException;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+final class JobResponses {
+
+    private JobResponses() {
+    }
+
+    /**
+     * Synchronous launches keep the plain status message; asynchronous ones answer
+     * 202 Accepted with the execution id and a link to the status endpoint.
+     */
+    static ResponseEntity<?> of(JobExecution jobExecution, boolean async, String completedMessage) {
+        if (!async) {
+            return ResponseEntity.ok(completedMessage + jobExecution.getStatus());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/jobs/" + jobExecution.getId()))
+                .body(JobLaunchResponse.from(jobExecution));
+    }
+
+    /**
+     * 429 Too Many Requests with a Retry-After header, for launches turned away by admission control.
+     */
+    static ResponseEntity<String> tooManyRequests(JobAdmissionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(e.getMessage());
+    }
+}
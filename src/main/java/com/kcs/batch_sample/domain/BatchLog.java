@@ -6,14 +6,22 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "batch_log")
+// One index per keyset query shape: by job and step, by job, by time range only
+@Table(name = "batch_log", indexes = {
+        @Index(name = "idx_batch_log_job_step_created", columnList = "job_name, step_name, created_at, id"),
+        @Index(name = "idx_batch_log_job_created", columnList = "job_name, created_at, id"),
+        @Index(name = "idx_batch_log_created", columnList = "created_at, id")
+})
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class BatchLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "batch_log_id_generator")
+    @TableGenerator(name = "batch_log_id_generator", table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.SEGMENT_COLUMN, valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = IdAllocation.BATCH_LOG_SEGMENT, allocationSize = IdAllocation.BATCH_LOG_BLOCK_SIZE)
     private Long id;
 
     @Column(name = "job_name")
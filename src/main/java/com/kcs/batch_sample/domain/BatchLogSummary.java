@@ -0,0 +1,53 @@
+package com.kcs.batch_sample.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Number of batch_log rows per job, step, day and message, kept up to date as the rows are written.
+ * Written and read through {@link com.kcs.batch_sample.repository.BatchLogSummaryRepository}.
+ */
+@Entity
+@Table(name = "batch_log_summary")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class BatchLogSummary {
+
+    /** Longest job name, step name and message kept in the key; longer ones are truncated. */
+    public static final int KEY_LENGTH = 100;
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "last_logged_at", nullable = false)
+    private LocalDateTime lastLoggedAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "job_name", length = KEY_LENGTH, nullable = false)
+        private String jobName;
+
+        @Column(name = "step_name", length = KEY_LENGTH, nullable = false)
+        private String stepName;
+
+        @Column(name = "log_date", nullable = false)
+        private LocalDate logDate;
+
+        @Column(name = "message", length = KEY_LENGTH, nullable = false)
+        private String message;
+    }
+}
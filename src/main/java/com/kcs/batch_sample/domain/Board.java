@@ -11,7 +11,10 @@ import lombok.*;
 @Builder
 public class Board {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "board_id_generator")
+    @TableGenerator(name = "board_id_generator", table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.SEGMENT_COLUMN, valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = IdAllocation.BOARD_SEGMENT, allocationSize = IdAllocation.BOARD_BLOCK_SIZE)
     @Column(name = "board_id", nullable = false, unique = true)
     private Long id;
 
@@ -24,4 +27,8 @@ public class Board {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    public void setId(Long id) {
+        this.id = id;
+    }
 }
\ No newline at end of file
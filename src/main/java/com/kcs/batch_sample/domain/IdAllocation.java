@@ -0,0 +1,24 @@
+package com.kcs.batch_sample.domain;
+
+/**
+ * Shared settings for the table-backed pooled id generators.
+ * Every entity draws blocks of ids from its own row in {@code id_allocation},
+ * so JDBC batching stays enabled and ids stay unique across application nodes.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_allocation";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    public static final String USERS_SEGMENT = "users";
+    public static final String BOARD_SEGMENT = "board";
+    public static final String BATCH_LOG_SEGMENT = "batch_log";
+
+    public static final int USERS_BLOCK_SIZE = 100;
+    public static final int BOARD_BLOCK_SIZE = 100;
+    public static final int BATCH_LOG_BLOCK_SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
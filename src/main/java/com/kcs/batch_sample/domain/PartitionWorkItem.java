@@ -0,0 +1,57 @@
+package com.kcs.batch_sample.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A partition waiting for, or claimed by, a worker on any application node.
+ * Written and claimed through {@link com.kcs.batch_sample.batch.partition.PartitionWorkQueue}.
+ */
+@Entity
+@Table(name = "batch_partition_queue", indexes = {
+        @Index(name = "idx_partition_queue_status_lease", columnList = "status, lease_expires_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PartitionWorkItem {
+
+    public enum Status {
+        QUEUED,
+        CLAIMED
+    }
+
+    @Id
+    @Column(name = "step_execution_id")
+    private Long stepExecutionId;
+
+    @Column(name = "job_execution_id", nullable = false)
+    private Long jobExecutionId;
+
+    /** Name of the worker step bean that runs the partition. */
+    @Column(name = "step_name", length = 100, nullable = false)
+    private String stepName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private Status status;
+
+    @Column(name = "owner", length = 200)
+    private String owner;
+
+    /** Number of times the partition was claimed. */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,14 +5,17 @@ import jakarta.validation.constraints.Email;
 import lombok.*;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "uk_users_username", columnNames = "username"))
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Builder
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_id_generator")
+    @TableGenerator(name = "users_id_generator", table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.SEGMENT_COLUMN, valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = IdAllocation.USERS_SEGMENT, allocationSize = IdAllocation.USERS_BLOCK_SIZE)
     @Column(name = "user_id", nullable = false, unique = true)
     private Long id;
 
@@ -23,6 +26,10 @@ public class User {
     @Column(name = "email", nullable = false)
     private String email;
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public void setEmail(String email) {
         this.email = email;
     }
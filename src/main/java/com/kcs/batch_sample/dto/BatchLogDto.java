@@ -0,0 +1,13 @@
+package com.kcs.batch_sample.dto;
+
+import java.time.LocalDateTime;
+
+public record BatchLogDto(
+        Long id,
+        String jobName,
+        String stepName,
+        String message,
+        String details,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,12 @@
+package com.kcs.batch_sample.dto;
+
+import java.util.List;
+
+/**
+ * One page of batch logs, newest first; {@code nextCursor} fetches the next page and is null on the last one.
+ */
+public record BatchLogPage(
+        List<BatchLogDto> items,
+        String nextCursor
+) {
+}
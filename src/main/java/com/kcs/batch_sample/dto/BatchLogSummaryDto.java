@@ -0,0 +1,14 @@
+package com.kcs.batch_sample.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record BatchLogSummaryDto(
+        String jobName,
+        String stepName,
+        LocalDate day,
+        String message,
+        long count,
+        LocalDateTime lastLoggedAt
+) {
+}
@@ -1,15 +1,23 @@
 package com.kcs.batch_sample.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public record BoardInfo(
 
+        @NotBlank
+        @Size(max = 20)
         @JsonProperty("title")
         String title,
 
+        @NotNull
+        @Size(max = 255)
         @JsonProperty("content")
         String content,
 
+        @NotBlank
         @JsonProperty("userUsername")
         String userUsername
 ) {}
@@ -0,0 +1,18 @@
+package com.kcs.batch_sample.dto;
+
+import java.time.LocalDateTime;
+
+public record JobExecutionStatusDto(
+        Long executionId,
+        String jobName,
+        String status,
+        String exitCode,
+        long readCount,
+        long writeCount,
+        long skipCount,
+        long rejectCount,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Long durationMillis
+) {
+}
@@ -0,0 +1,16 @@
+package com.kcs.batch_sample.dto;
+
+import org.springframework.batch.core.JobExecution;
+
+public record JobLaunchResponse(
+        Long executionId,
+        String jobName,
+        String status
+) {
+    public static JobLaunchResponse from(JobExecution jobExecution) {
+        return new JobLaunchResponse(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getStatus().name());
+    }
+}
@@ -2,13 +2,19 @@ package com.kcs.batch_sample.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 public record UserInfo(
 
+        @NotBlank
+        @Size(max = 255)
         @JsonProperty("username")
         String username,
 
+        @NotBlank
         @Email
+        @Size(max = 255)
         @JsonProperty("email")
         String email
 ) {
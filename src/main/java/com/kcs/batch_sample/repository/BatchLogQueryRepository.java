@@ -0,0 +1,70 @@
+package com.kcs.batch_sample.repository;
+
+import com.kcs.batch_sample.dto.BatchLogDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated reads of batch_log, newest first. A page continues strictly after the
+ * {@code (created_at, id)} of the last row of the previous one, so every page is a range scan of one
+ * of the batch_log indexes whatever its depth.
+ */
+@Repository
+public class BatchLogQueryRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public BatchLogQueryRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * @param stepName only used together with {@code jobName}
+     * @param from     inclusive, null for no lower bound
+     * @param to       exclusive, null for no upper bound
+     * @param after    {@code (created_at, id)} of the last row already returned, null for the first page
+     */
+    public List<BatchLogDto> find(String jobName, String stepName, LocalDateTime from, LocalDateTime to,
+                                  Position after, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT id, job_name, step_name, error_message, item_data, created_at "
+                + "FROM batch_log WHERE 1 = 1");
+        if (jobName != null) {
+            sql.append(" AND job_name = :jobName");
+            parameters.addValue("jobName", jobName);
+            if (stepName != null) {
+                sql.append(" AND step_name = :stepName");
+                parameters.addValue("stepName", stepName);
+            }
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+            parameters.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+            parameters.addValue("to", to);
+        }
+        if (after != null) {
+            sql.append(" AND (created_at < :afterCreatedAt OR (created_at = :afterCreatedAt AND id < :afterId))");
+            parameters.addValue("afterCreatedAt", after.createdAt());
+            parameters.addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+
+        return namedParameterJdbcTemplate.query(sql.toString(), parameters, (rs, rowNum) -> new BatchLogDto(
+                rs.getLong("id"),
+                rs.getString("job_name"),
+                rs.getString("step_name"),
+                rs.getString("error_message"),
+                rs.getString("item_data"),
+                rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+
+    public record Position(LocalDateTime createdAt, long id) {
+    }
+}
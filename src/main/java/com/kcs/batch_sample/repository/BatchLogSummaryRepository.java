@@ -0,0 +1,134 @@
+package com.kcs.batch_sample.repository;
+
+import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.domain.BatchLogSummary;
+import com.kcs.batch_sample.dto.BatchLogSummaryDto;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains batch_log_summary alongside batch_log: each written batch of log rows is counted per
+ * job, step, day and message in memory and added to the summary rows with one batched upsert, so
+ * the totals never have to be aggregated from the raw log.
+ */
+@Repository
+public class BatchLogSummaryRepository {
+
+    private static final String MYSQL_UPSERT_SQL = "INSERT INTO batch_log_summary "
+            + "(job_name, step_name, log_date, message, entry_count, last_logged_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE entry_count = entry_count + VALUES(entry_count), "
+            + "last_logged_at = GREATEST(last_logged_at, VALUES(last_logged_at))";
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO batch_log_summary "
+            + "(job_name, step_name, log_date, message, entry_count, last_logged_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (job_name, log_date, message, step_name) DO UPDATE SET "
+            + "entry_count = batch_log_summary.entry_count + EXCLUDED.entry_count, "
+            + "last_logged_at = GREATEST(batch_log_summary.last_logged_at, EXCLUDED.last_logged_at)";
+    private static final String MERGE_SQL = "MERGE INTO batch_log_summary t USING (VALUES (CAST(? AS VARCHAR(100)), "
+            + "CAST(? AS VARCHAR(100)), CAST(? AS DATE), CAST(? AS VARCHAR(100)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) "
+            + "AS s (job_name, step_name, log_date, message, entry_count, last_logged_at) "
+            + "ON t.job_name = s.job_name AND t.step_name = s.step_name AND t.log_date = s.log_date AND t.message = s.message "
+            + "WHEN MATCHED THEN UPDATE SET entry_count = t.entry_count + s.entry_count, "
+            + "last_logged_at = GREATEST(t.last_logged_at, s.last_logged_at) "
+            + "WHEN NOT MATCHED THEN INSERT (job_name, step_name, log_date, message, entry_count, last_logged_at) "
+            + "VALUES (s.job_name, s.step_name, s.log_date, s.message, s.entry_count, s.last_logged_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String upsertSql;
+
+    public BatchLogSummaryRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.upsertSql = upsertSql(DatabaseType.fromMetaData(dataSource));
+    }
+
+    private static String upsertSql(DatabaseType databaseType) {
+        return switch (databaseType) {
+            case MYSQL, MARIADB -> MYSQL_UPSERT_SQL;
+            case POSTGRES -> POSTGRES_UPSERT_SQL;
+            case H2, HSQL -> MERGE_SQL;
+            default -> throw new IllegalStateException("Upserts are not supported on " + databaseType);
+        };
+    }
+
+    /**
+     * Adds the rows to their summaries; runs in the caller's transaction.
+     */
+    public void increment(List<BatchLog> batchLogs) {
+        Map<BatchLogSummary.Key, Totals> totals = new HashMap<>();
+        for (BatchLog batchLog : batchLogs) {
+            LocalDateTime createdAt = batchLog.getCreatedAt();
+            BatchLogSummary.Key key = new BatchLogSummary.Key(keyPart(batchLog.getJobName()),
+                    keyPart(batchLog.getStepName()), createdAt.toLocalDate(), keyPart(batchLog.getErrorMessage()));
+            totals.computeIfAbsent(key, k -> new Totals(createdAt)).add(createdAt);
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> rows.add(new Object[]{
+                key.getJobName(), key.getStepName(), key.getLogDate(), key.getMessage(),
+                total.count, Timestamp.valueOf(total.lastLoggedAt)}));
+        jdbcTemplate.batchUpdate(upsertSql, rows);
+    }
+
+    /**
+     * Summaries of the days in [from, to], optionally of one job, most recent day first.
+     */
+    public List<BatchLogSummaryDto> find(String jobName, LocalDate from, LocalDate to) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+        StringBuilder sql = new StringBuilder("SELECT job_name, step_name, log_date, message, entry_count, last_logged_at "
+                + "FROM batch_log_summary WHERE log_date BETWEEN :from AND :to");
+        if (jobName != null) {
+            sql.append(" AND job_name = :jobName");
+            parameters.addValue("jobName", keyPart(jobName));
+        }
+        sql.append(" ORDER BY log_date DESC, job_name, step_name, message");
+        return namedParameterJdbcTemplate.query(sql.toString(), parameters, (rs, rowNum) -> new BatchLogSummaryDto(
+                rs.getString("job_name"),
+                rs.getString("step_name"),
+                rs.getObject("log_date", LocalDate.class),
+                rs.getString("message"),
+                rs.getLong("entry_count"),
+                rs.getTimestamp("last_logged_at").toLocalDateTime()));
+    }
+
+    private static String keyPart(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() > BatchLogSummary.KEY_LENGTH ? value.substring(0, BatchLogSummary.KEY_LENGTH) : value;
+    }
+
+    private static final class Totals {
+        private long count;
+        private LocalDateTime lastLoggedAt;
+
+        private Totals(LocalDateTime createdAt) {
+            this.lastLoggedAt = createdAt;
+        }
+
+        private void add(LocalDateTime createdAt) {
+            count++;
+            if (createdAt.isAfter(lastLoggedAt)) {
+                lastLoggedAt = createdAt;
+            }
+        }
+    }
+}
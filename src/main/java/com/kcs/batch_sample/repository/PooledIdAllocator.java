@@ -0,0 +1,30 @@
+package com.kcs.batch_sample.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids from the same Hibernate pooled generator the entity is mapped with,
+ * so rows written through plain JDBC share the per-JVM id blocks with JPA saves.
+ * Must be called inside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class PooledIdAllocator {
+
+    private final EntityManager entityManager;
+
+    public long nextId(Object entity) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Generator generator = session.getEntityPersister(null, entity).getGenerator();
+        if (!(generator instanceof BeforeExecutionGenerator beforeExecution)) {
+            throw new IllegalStateException(entity.getClass().getSimpleName() + " ids are not generated before insert");
+        }
+        return ((Number) beforeExecution.generate(session, entity, null, EventType.INSERT)).longValue();
+    }
+}
@@ -0,0 +1,161 @@
+package com.kcs.batch_sample.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves usernames to user ids through a size-bounded LRU cache. The misses of a whole call are
+ * loaded with one {@code IN} query per {@value #LOAD_BATCH_SIZE} names, so resolving the users of a
+ * chunk costs at most a few queries however many distinct users it references.
+ * <p>
+ * Should a database predate the unique key on {@code users.username} and hold several users with one
+ * name, the most recently inserted one is taken. Writers of the users table call {@link #invalidate}
+ * so that a new user with a known name is picked up.
+ * <pre>
+ * batch.user.resolver.requests{result=hit|miss}   lookups answered from the cache or the database
+ * batch.user.resolver.hit.ratio                   hits over all lookups since startup
+ * batch.user.resolver.load                        time spent loading the misses of one call
+ * batch.user.resolver.size                        cached entries
+ * </pre>
+ */
+@Component
+public class UserIdResolver {
+
+    static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final String SELECT_USER_IDS_SQL =
+            "SELECT username, MAX(user_id) AS user_id FROM users WHERE username IN (:usernames) GROUP BY username";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final LinkedHashMap<String, Long> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Timer loadTimer;
+
+    public UserIdResolver(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.batch.user-id-cache.max-size:100000}") int maxSize) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.cache = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        FunctionCounter.builder("batch.user.resolver.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("batch.user.resolver.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("batch.user.resolver.hit.ratio", this, UserIdResolver::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("batch.user.resolver.size", this, UserIdResolver::size)
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("batch.user.resolver.load")
+                .description("Time spent loading the cache misses of one call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the user id of every given username that exists; unknown names are left out
+     */
+    public Map<String, Long> resolve(Collection<String> usernames) {
+        Map<String, Long> resolved = new HashMap<>(usernames.size() * 2);
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (cache) {
+            for (String username : usernames) {
+                Long userId = cache.get(username);
+                if (userId != null) {
+                    resolved.put(username, userId);
+                } else {
+                    missing.add(username);
+                }
+            }
+        }
+        hits.addAndGet(resolved.size());
+        misses.addAndGet(missing.size());
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Long> loaded = loadTimer.record(() -> load(new ArrayList<>(missing)));
+        synchronized (cache) {
+            cache.putAll(loaded);
+        }
+        resolved.putAll(loaded);
+        return resolved;
+    }
+
+    /**
+     * Drops the given usernames now and again once the current transaction completed, so a lookup that
+     * ran concurrently with the write cannot keep a stale id.
+     */
+    public void invalidate(Collection<String> usernames) {
+        evict(usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> written = List.copyOf(usernames);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(written);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void evict(Collection<String> usernames) {
+        synchronized (cache) {
+            for (String username : usernames) {
+                cache.remove(username);
+            }
+        }
+    }
+
+    private Map<String, Long> load(List<String> usernames) {
+        Map<String, Long> loaded = new HashMap<>(usernames.size() * 2);
+        for (int from = 0; from < usernames.size(); from += LOAD_BATCH_SIZE) {
+            List<String> batch = usernames.subList(from, Math.min(usernames.size(), from + LOAD_BATCH_SIZE));
+            namedParameterJdbcTemplate.query(SELECT_USER_IDS_SQL, Map.of("usernames", batch), rs -> {
+                loaded.put(rs.getString("username"), rs.getLong("user_id"));
+            });
+        }
+        return loaded;
+    }
+}
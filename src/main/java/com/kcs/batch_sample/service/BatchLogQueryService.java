@@ -0,0 +1,68 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.dto.BatchLogDto;
+import com.kcs.batch_sample.dto.BatchLogPage;
+import com.kcs.batch_sample.dto.BatchLogSummaryDto;
+import com.kcs.batch_sample.repository.BatchLogQueryRepository;
+import com.kcs.batch_sample.repository.BatchLogQueryRepository.Position;
+import com.kcs.batch_sample.repository.BatchLogSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class BatchLogQueryService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final BatchLogQueryRepository batchLogQueryRepository;
+    private final BatchLogSummaryRepository batchLogSummaryRepository;
+
+    /**
+     * @param cursor the {@code nextCursor} of the previous page, null for the first one
+     * @throws IllegalArgumentException for a malformed cursor, or a step without its job
+     */
+    public BatchLogPage find(String jobName, String stepName, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        if (stepName != null && jobName == null) {
+            throw new IllegalArgumentException("stepName can only be used together with jobName");
+        }
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        // One extra row tells whether there is a next page
+        List<BatchLogDto> rows = batchLogQueryRepository.find(jobName, stepName, from, to, decode(cursor), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new BatchLogPage(rows, null);
+        }
+        List<BatchLogDto> items = rows.subList(0, pageSize);
+        BatchLogDto last = items.get(pageSize - 1);
+        return new BatchLogPage(items, encode(new Position(last.createdAt(), last.id())));
+    }
+
+    public List<BatchLogSummaryDto> summarize(String jobName, LocalDate from, LocalDate to) {
+        return batchLogSummaryRepository.find(jobName, from, to);
+    }
+
+    private static String encode(Position position) {
+        String value = position.createdAt() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new Position(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.batch.job.HousekeepingJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+@Slf4j
+public class HousekeepingService {
+    private final JobLaunchService jobLaunchService;
+    private final Job housekeepingPurgeJob;
+    private final Duration retention;
+
+    public HousekeepingService(
+            JobLaunchService jobLaunchService,
+            @Qualifier("housekeepingPurgeJob") Job housekeepingPurgeJob,
+            @Value("${app.batch.housekeeping.retention:30d}") Duration retention) {
+        this.jobLaunchService = jobLaunchService;
+        this.housekeepingPurgeJob = housekeepingPurgeJob;
+        this.retention = retention;
+    }
+
+    /**
+     * Removes job metadata, batch logs and staged files older than the retention.
+     */
+    public JobExecution purge(boolean async) throws JobExecutionException {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addLocalDateTime(HousekeepingJob.CUTOFF_PARAMETER, LocalDateTime.now().minus(retention))
+                .toJobParameters();
+
+        return jobLaunchService.launch(housekeepingPurgeJob, jobParameters, async);
+    }
+
+    @Scheduled(cron = "${app.batch.housekeeping.cron:-}")
+    public void scheduledPurge() throws JobExecutionException {
+        log.info("Housekeeping job finished with status: {}", purge(false).getStatus());
+    }
+}
@@ -1,43 +1,43 @@
 package com.kcs.batch_sample.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.kcs.batch_sample.dto.UserCreationDto;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+
 @Service
 @Slf4j
 public class IndividualProcessingService {
 
-    private final JobLauncher jobLauncher;
+    private final JobLaunchService jobLaunchService;
     private final Job individualProcessingJob;
-    private final ObjectMapper objectMapper;
+    private final PayloadStore payloadStore;
 
     public IndividualProcessingService(
-            JobLauncher jobLauncher,
+            JobLaunchService jobLaunchService,
             @Qualifier("processIndividualJob") Job individualProcessingJob,
-            ObjectMapper objectMapper) {
-        this.jobLauncher = jobLauncher;
+            PayloadStore payloadStore) {
+        this.jobLaunchService = jobLaunchService;
         this.individualProcessingJob = individualProcessingJob;
-        this.objectMapper = objectMapper;
+        this.payloadStore = payloadStore;
     }
 
-    public JobExecution processIndividualJob(UserCreationDto userCreationDto) throws Exception {
+    public JobExecution processIndividualJob(InputStream userCreationPayload, boolean async) throws Exception {
         JobParameters jobParameters = new JobParametersBuilder()
                 .addLong("time", System.currentTimeMillis())
-                .addString("usersJson", objectMapper.writeValueAsString(userCreationDto.users()))
+                .addString(PayloadStore.PAYLOAD_ID_PARAMETER, payloadStore.stage(userCreationPayload))
                 .toJobParameters();
 
         log.info("Starting individual processing job with parameters: {}", jobParameters);
-        JobExecution jobExecution = jobLauncher.run(individualProcessingJob, jobParameters);
-        log.info("Individual processing job completed with status: {}", jobExecution.getStatus());
+        JobExecution jobExecution = jobLaunchService.launch(individualProcessingJob, jobParameters, async);
+        log.info("Individual processing job returned with status: {}", jobExecution.getStatus());
 
         return jobExecution;
     }
@@ -0,0 +1,24 @@
+package com.kcs.batch_sample.service;
+
+import org.springframework.batch.core.JobExecutionException;
+
+import java.time.Duration;
+
+/**
+ * A launch turned away by {@link JobAdmissionQueue}, before anything was written to the JobRepository.
+ */
+public class JobAdmissionException extends JobExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public JobAdmissionException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,261 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.config.JobAdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Admission control in front of the job launchers, so a burst of launches cannot take more connections
+ * from the shared Hikari pool than the JobRepository and the running jobs leave free.
+ * <p>
+ * At most {@code max-running} jobs run at once, and at most {@code max-running-per-job} (or the job's
+ * own {@code max-running}) of one job. A launch beyond that waits in a queue of {@code queue-capacity}
+ * tickets, admitted highest {@code priority} first and in arrival order within a priority; a ticket whose
+ * job is at its own limit does not hold back the tickets of other jobs behind it. A launch finding the
+ * queue full is rejected with a {@link JobAdmissionException} carrying {@code retry-after-seconds}.
+ * <p>
+ * A synchronous launch waits for its admission on the calling thread, for up to {@code sync-max-wait-ms}.
+ * An asynchronous one hands over its task and returns; the task runs on the job launch executor once admitted.
+ * <pre>
+ * batch.admission.queue.size                      launches waiting for admission
+ * batch.admission.running                         admitted launches not yet finished
+ * batch.admission.wait{job}                       time from enqueueing to admission
+ * batch.admission.rejected{job,reason}            launches turned away, reason queue_full or timeout
+ * </pre>
+ */
+@Component
+@Slf4j
+public class JobAdmissionQueue {
+
+    private static final Comparator<Ticket> ADMISSION_ORDER = Comparator
+            .comparingInt((Ticket ticket) -> -ticket.priority)
+            .thenComparingLong(ticket -> ticket.sequence);
+
+    private enum State {
+        WAITING,
+        ADMITTED,
+        RELEASED
+    }
+
+    /**
+     * A launch's place in the queue, then its running slot until released.
+     */
+    public static final class Ticket {
+        private final String jobName;
+        private final int priority;
+        private final long sequence;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CountDownLatch admission = new CountDownLatch(1);
+        private State state = State.WAITING;
+        private Runnable task;
+        private Consumer<TaskRejectedException> onRejected;
+
+        private Ticket(String jobName, int priority, long sequence) {
+            this.jobName = jobName;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public boolean isAdmitted() {
+            return admission.getCount() == 0;
+        }
+    }
+
+    private final JobAdmissionProperties properties;
+    private final TaskExecutor jobLaunchTaskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TreeSet<Ticket> waiting = new TreeSet<>(ADMISSION_ORDER);
+    private final Map<String, Integer> runningPerJob = new HashMap<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public JobAdmissionQueue(JobAdmissionProperties properties,
+                             @Qualifier("jobLaunchTaskExecutor") TaskExecutor jobLaunchTaskExecutor,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jobLaunchTaskExecutor = jobLaunchTaskExecutor;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("batch.admission.queue.size", waitingCount, AtomicInteger::get)
+                .description("Job launches waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("batch.admission.running", runningCount, AtomicInteger::get)
+                .description("Admitted job launches not yet finished")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a launch of the job, admitting it right away if it is within the limits.
+     *
+     * @throws JobAdmissionException if the queue is full
+     */
+    public Ticket enqueue(String jobName) throws JobAdmissionException {
+        List<Ticket> admitted;
+        Ticket ticket;
+        synchronized (this) {
+            if (waiting.size() >= properties.queueCapacity()) {
+                throw reject(jobName, "queue_full", "Job launch queue is full (" + waiting.size() + " waiting)");
+            }
+            ticket = new Ticket(jobName, properties.priority(jobName), sequence.incrementAndGet());
+            waiting.add(ticket);
+            admitted = admitWaiting();
+        }
+        submitAll(admitted);
+        return ticket;
+    }
+
+    /**
+     * Blocks until the ticket is admitted; the caller runs the job itself and then releases the ticket.
+     *
+     * @throws JobAdmissionException if the ticket was not admitted within {@code sync-max-wait-ms}
+     */
+    public void awaitAdmission(Ticket ticket) throws JobAdmissionException {
+        boolean admitted;
+        try {
+            admitted = ticket.admission.await(properties.syncMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            synchronized (this) {
+                if (ticket.state == State.WAITING) {
+                    waiting.remove(ticket);
+                    ticket.state = State.RELEASED;
+                    waitingCount.set(waiting.size());
+                    throw reject(ticket.jobName, "timeout",
+                            "No slot for job " + ticket.jobName + " within " + properties.syncMaxWaitMs() + " ms");
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the task on the job launch executor once the ticket is admitted, releasing the ticket after it.
+     * Should the executor reject the task, the ticket is released and the rejection is thrown to the caller
+     * if the ticket was already admitted, or passed to {@code onRejected} if it was admitted later.
+     */
+    public void execute(Ticket ticket, Runnable task, Consumer<TaskRejectedException> onRejected) {
+        synchronized (this) {
+            ticket.task = task;
+            ticket.onRejected = onRejected;
+            if (ticket.state != State.ADMITTED) {
+                return;
+            }
+        }
+        try {
+            submit(ticket);
+        } catch (TaskRejectedException e) {
+            release(ticket);
+            throw e;
+        }
+    }
+
+    /**
+     * Gives up the ticket's place in the queue or its running slot; releasing twice has no effect.
+     */
+    public void release(Ticket ticket) {
+        List<Ticket> admitted;
+        synchronized (this) {
+            if (ticket.state == State.WAITING) {
+                waiting.remove(ticket);
+            } else if (ticket.state == State.ADMITTED) {
+                runningPerJob.merge(ticket.jobName, -1, Integer::sum);
+                runningCount.decrementAndGet();
+            }
+            ticket.state = State.RELEASED;
+            admitted = admitWaiting();
+        }
+        submitAll(admitted);
+    }
+
+    // Called holding the lock; returns the admitted tickets whose task is ready to be submitted
+    private List<Ticket> admitWaiting() {
+        List<Ticket> ready = new ArrayList<>();
+        for (Iterator<Ticket> it = waiting.iterator(); it.hasNext() && runningCount.get() < properties.maxRunning(); ) {
+            Ticket ticket = it.next();
+            if (runningPerJob.getOrDefault(ticket.jobName, 0) >= properties.maxRunning(ticket.jobName)) {
+                continue;
+            }
+            it.remove();
+            ticket.state = State.ADMITTED;
+            runningPerJob.merge(ticket.jobName, 1, Integer::sum);
+            runningCount.incrementAndGet();
+            Timer.builder("batch.admission.wait")
+                    .description("Time job launches waited for admission")
+                    .tag("job", ticket.jobName)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - ticket.enqueuedNanos, TimeUnit.NANOSECONDS);
+            ticket.admission.countDown();
+            if (ticket.task != null) {
+                ready.add(ticket);
+            }
+        }
+        waitingCount.set(waiting.size());
+        return ready;
+    }
+
+    private void submitAll(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            try {
+                submit(ticket);
+            } catch (TaskRejectedException e) {
+                log.error("Job launch executor rejected an admitted launch of {}", ticket.jobName, e);
+                release(ticket);
+                try {
+                    ticket.onRejected.accept(e);
+                } catch (RuntimeException failure) {
+                    log.error("Error recording the rejected launch of {}", ticket.jobName, failure);
+                }
+            }
+        }
+    }
+
+    private void submit(Ticket ticket) {
+        jobLaunchTaskExecutor.execute(() -> {
+            try {
+                ticket.task.run();
+            } finally {
+                release(ticket);
+            }
+        });
+    }
+
+    private JobAdmissionException reject(String jobName, String reason, String message) {
+        Counter.builder("batch.admission.rejected")
+                .description("Job launches turned away")
+                .tag("job", jobName)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        Duration retryAfter = Duration.ofSeconds(properties.retryAfterSeconds());
+        log.warn("{}, rejecting a launch of {}", message, jobName);
+        return new JobAdmissionException(message + ", retry in " + retryAfter.toSeconds() + "s", retryAfter);
+    }
+}
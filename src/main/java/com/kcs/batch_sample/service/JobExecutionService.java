@@ -0,0 +1,76 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.batch.validation.PayloadValidationStepFactory;
+import com.kcs.batch_sample.dto.JobExecutionStatusDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class JobExecutionService {
+
+    private final JobExplorer jobExplorer;
+    private final PayloadStore payloadStore;
+
+    public Optional<JobExecutionStatusDto> getStatus(long executionId) {
+        JobExecution jobExecution = jobExplorer.getJobExecution(executionId);
+        if (jobExecution == null) {
+            return Optional.empty();
+        }
+
+        long readCount = 0;
+        long writeCount = 0;
+        long skipCount = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            readCount += stepExecution.getReadCount();
+            writeCount += stepExecution.getWriteCount();
+            skipCount += stepExecution.getSkipCount();
+        }
+
+        LocalDateTime startTime = jobExecution.getStartTime();
+        LocalDateTime endTime = jobExecution.getEndTime();
+        Long durationMillis = startTime == null ? null
+                : Duration.between(startTime, endTime != null ? endTime : LocalDateTime.now()).toMillis();
+
+        return Optional.of(new JobExecutionStatusDto(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitCode(),
+                readCount,
+                writeCount,
+                skipCount,
+                jobExecution.getExecutionContext().getLong(PayloadValidationStepFactory.REJECT_COUNT_KEY, 0L),
+                startTime,
+                endTime,
+                durationMillis));
+    }
+
+    /**
+     * The records rejected by payload validation, one JSON object per line; empty when nothing was rejected.
+     */
+    public Optional<Resource> getRejectReport(long executionId) {
+        JobExecution jobExecution = jobExplorer.getJobExecution(executionId);
+        if (jobExecution == null) {
+            return Optional.empty();
+        }
+        String payloadId = jobExecution.getJobParameters().getString(PayloadStore.PAYLOAD_ID_PARAMETER);
+        if (payloadId == null) {
+            return Optional.empty();
+        }
+        Path rejectReport = payloadStore.rejectReport(payloadId);
+        return Files.exists(rejectReport) ? Optional.of(new FileSystemResource(rejectReport)) : Optional.empty();
+    }
+}
@@ -0,0 +1,163 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Launches jobs once {@link JobAdmissionQueue} admits them, and restarts failed or stopped executions.
+ * <p>
+ * An asynchronous launch creates its execution, STARTING, before it waits in the queue, and the queue
+ * only lives in memory. Executions still queued when the JVM stops stay STARTING: nothing runs them
+ * after a restart of the application, and {@link #restart} refuses them like any running execution.
+ * They are not failed on startup, since with several nodes sharing the JobRepository a STARTING
+ * execution may be queued on another node. To relaunch one, set its STATUS and EXIT_CODE to FAILED
+ * and its END_TIME in BATCH_JOB_EXECUTION, then restart it.
+ */
+@Service
+@Slf4j
+public class JobLaunchService {
+
+    private final JobRepository jobRepository;
+    private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final JobAdmissionQueue jobAdmissionQueue;
+    private final PayloadStore payloadStore;
+    private final Map<String, Job> jobs;
+
+    public JobLaunchService(
+            JobRepository jobRepository,
+            JobLauncher jobLauncher,
+            JobExplorer jobExplorer,
+            JobAdmissionQueue jobAdmissionQueue,
+            PayloadStore payloadStore,
+            List<Job> jobs) {
+        this.jobRepository = jobRepository;
+        this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
+        this.jobAdmissionQueue = jobAdmissionQueue;
+        this.payloadStore = payloadStore;
+        this.jobs = jobs.stream().collect(Collectors.toUnmodifiableMap(Job::getName, Function.identity()));
+    }
+
+    /**
+     * Launches the job once {@link JobAdmissionQueue} admits it. A synchronous launch waits for its slot
+     * and runs on the calling thread. An asynchronous one returns its STARTING execution right away and
+     * runs once admitted.
+     * <p>
+     * A launch turned away never had an execution, so the payload staged for it is deleted right away
+     * rather than left to housekeeping.
+     *
+     * @throws JobAdmissionException if the launch queue is full, or a synchronous launch waited too long
+     */
+    public JobExecution launch(Job job, JobParameters jobParameters, boolean async) throws JobExecutionException {
+        try {
+            return admitAndLaunch(job, jobParameters, async);
+        } catch (JobAdmissionException e) {
+            String payloadId = jobParameters.getString(PayloadStore.PAYLOAD_ID_PARAMETER);
+            if (payloadId != null) {
+                payloadStore.delete(payloadId);
+            }
+            throw e;
+        }
+    }
+
+    private JobExecution admitAndLaunch(Job job, JobParameters jobParameters, boolean async) throws JobExecutionException {
+        JobAdmissionQueue.Ticket ticket = jobAdmissionQueue.enqueue(job.getName());
+        if (!async) {
+            try {
+                jobAdmissionQueue.awaitAdmission(ticket);
+                return jobLauncher.run(job, jobParameters);
+            } finally {
+                jobAdmissionQueue.release(ticket);
+            }
+        }
+        try {
+            JobExecution jobExecution = asyncJobLauncher(ticket, job, jobParameters).run(job, jobParameters);
+            log.info("Job {} submitted asynchronously with execution id {}{}", job.getName(), jobExecution.getId(),
+                    ticket.isAdmitted() ? "" : ", queued for admission");
+            return jobExecution;
+        } catch (JobExecutionException | RuntimeException e) {
+            jobAdmissionQueue.release(ticket);
+            throw e;
+        }
+    }
+
+    /**
+     * Relaunches a failed or stopped execution with its own job parameters, so its job instance resumes
+     * from the last committed chunk of the step that failed, reading the payload staged for it.
+     * Only the latest execution of an instance can be restarted; a compensated import is abandoned
+     * and cannot be.
+     */
+    public Optional<JobExecution> restart(long executionId, boolean async) throws JobExecutionException {
+        JobExecution jobExecution = jobExplorer.getJobExecution(executionId);
+        if (jobExecution == null) {
+            return Optional.empty();
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(jobExecution.getJobInstance());
+        if (lastExecution != null && !lastExecution.getId().equals(jobExecution.getId())) {
+            throw new JobRestartException("Execution " + executionId + " was already restarted as execution " + lastExecution.getId());
+        }
+        BatchStatus status = jobExecution.getStatus();
+        if (status != BatchStatus.FAILED && status != BatchStatus.STOPPED) {
+            throw new JobRestartException("Execution " + executionId + " is " + status + ", only failed or stopped executions can be restarted");
+        }
+        String jobName = jobExecution.getJobInstance().getJobName();
+        Job job = jobs.get(jobName);
+        if (job == null) {
+            throw new NoSuchJobException("No job named " + jobName);
+        }
+        log.info("Restarting execution {} of job {}", executionId, jobName);
+        // A rejected restart keeps its payload, the failed execution still needs it
+        return Optional.of(admitAndLaunch(job, jobExecution.getJobParameters(), async));
+    }
+
+    // One launcher per launch, its executor hands the job to the ticket; not a bean so JobLauncher
+    // injection by type stays unambiguous
+    private JobLauncher asyncJobLauncher(JobAdmissionQueue.Ticket ticket, Job job, JobParameters jobParameters)
+            throws JobExecutionException {
+        TaskExecutorJobLauncher taskExecutorJobLauncher = new TaskExecutorJobLauncher();
+        taskExecutorJobLauncher.setJobRepository(jobRepository);
+        taskExecutorJobLauncher.setTaskExecutor(task -> jobAdmissionQueue.execute(ticket, task,
+                e -> failRejectedExecution(job, jobParameters, e)));
+        try {
+            taskExecutorJobLauncher.afterPropertiesSet();
+        } catch (Exception e) {
+            throw new JobExecutionException("Could not create a job launcher", e);
+        }
+        return taskExecutorJobLauncher;
+    }
+
+    // A queued launch rejected once admitted: fail its STARTING execution, as the launcher does for
+    // a rejection it sees
+    private void failRejectedExecution(Job job, JobParameters jobParameters, TaskRejectedException e) {
+        JobExecution jobExecution = jobRepository.getLastJobExecution(job.getName(), jobParameters);
+        if (jobExecution == null || jobExecution.getStatus() != BatchStatus.STARTING) {
+            return;
+        }
+        jobExecution.upgradeStatus(BatchStatus.FAILED);
+        jobExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+        jobExecution.setEndTime(LocalDateTime.now());
+        jobRepository.update(jobExecution);
+    }
+}
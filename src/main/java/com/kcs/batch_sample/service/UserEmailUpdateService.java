@@ -1,71 +1,69 @@
 package com.kcs.batch_sample.service;
 
-import com.kcs.batch_sample.batch.job.GenericBatchProcessingJob;
-import com.kcs.batch_sample.domain.User;
-import com.kcs.batch_sample.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import jakarta.persistence.EntityManagerFactory;
-
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserEmailUpdateService {
-    private final GenericBatchProcessingJob<User, User> genericBatchProcessingJob;
-    private final JobLauncher jobLauncher;
-    private final UserRepository userRepository;
-    private final EntityManagerFactory entityManagerFactory;
+    private final JobLaunchService jobLaunchService;
+    private final Job updateUserEmailJob;
+    private final Job partitionedUpdateUserEmailJob;
+    private final Job setBasedUpdateUserEmailJob;
+    private final Job queuePartitionedUpdateUserEmailJob;
+    private final int maxGridSize;
 
-    public JobExecution updateUserEmails() throws JobExecutionException {
-        Job job = genericBatchProcessingJob.createJob(
-                userReader(),
-                userEmailProcessor(),
-                userWriter(),
-                "updateUserEmailJob",
-                "updateUserEmailStep",
-                5 // chunk size
-        );
+    public UserEmailUpdateService(
+            JobLaunchService jobLaunchService,
+            @Qualifier("updateUserEmailJob") Job updateUserEmailJob,
+            @Qualifier("partitionedUpdateUserEmailJob") Job partitionedUpdateUserEmailJob,
+            @Qualifier("setBasedUpdateUserEmailJob") Job setBasedUpdateUserEmailJob,
+            @Qualifier("queuePartitionedUpdateUserEmailJob") Job queuePartitionedUpdateUserEmailJob,
+            @Value("${app.batch.partition.pool-size:8}") int maxGridSize) {
+        this.jobLaunchService = jobLaunchService;
+        this.updateUserEmailJob = updateUserEmailJob;
+        this.partitionedUpdateUserEmailJob = partitionedUpdateUserEmailJob;
+        this.setBasedUpdateUserEmailJob = setBasedUpdateUserEmailJob;
+        this.queuePartitionedUpdateUserEmailJob = queuePartitionedUpdateUserEmailJob;
+        this.maxGridSize = maxGridSize;
+    }
 
+    public JobExecution updateUserEmails(boolean async) throws JobExecutionException {
         JobParameters jobParameters = new JobParametersBuilder()
                 .addLong("time", System.currentTimeMillis())
                 .toJobParameters();
 
-        return jobLauncher.run(job, jobParameters);
+        return jobLaunchService.launch(updateUserEmailJob, jobParameters, async);
+    }
+
+    public JobExecution updateUserEmailsPartitioned(Integer gridSize, boolean async) throws JobExecutionException {
+        return jobLaunchService.launch(partitionedUpdateUserEmailJob, partitionedJobParameters(gridSize), async);
     }
 
-    private ItemReader<User> userReader() {
-        return new JpaPagingItemReaderBuilder<User>()
-                .name("userReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT u FROM User u ORDER BY u.id DESC")
-                .pageSize(15)
-                .maxItemCount(15)
-                .build();
+    public JobExecution updateUserEmailsQueuePartitioned(Integer gridSize, boolean async) throws JobExecutionException {
+        return jobLaunchService.launch(queuePartitionedUpdateUserEmailJob, partitionedJobParameters(gridSize), async);
     }
 
-    private ItemProcessor<User, User> userEmailProcessor() {
-        return user -> {
-            String newEmail = "user" + user.getId() + "@example.com";
-            user.setEmail(newEmail);
-            log.info("Updated email for user {}: {}", user.getUsername(), newEmail);
-            return user;
-        };
+    // Without a gridSize the manager step partitions by app.batch.partition.grid-size. A requested one is
+    // capped at app.batch.partition.pool-size: partitions beyond the worker threads only wait for a thread,
+    // and every running partition holds a connection of the Hikari pool
+    private JobParameters partitionedJobParameters(Integer gridSize) {
+        JobParametersBuilder builder = new JobParametersBuilder()
+                .addLong("time", System.currentTimeMillis());
+        if (gridSize != null) {
+            builder.addLong("gridSize", (long) Math.max(1, Math.min(maxGridSize, gridSize)));
+        }
+        return builder.toJobParameters();
     }
 
-    private ItemWriter<User> userWriter() {
-        return users -> {
-            for (User user : users) {
-                userRepository.save(user);
-                log.info("User updated: {}", user);
-            }
-        };
+    public JobExecution updateUserEmailsSetBased(boolean async) throws JobExecutionException {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addLong("time", System.currentTimeMillis())
+                .toJobParameters();
+
+        return jobLaunchService.launch(setBasedUpdateUserEmailJob, jobParameters, async);
     }
-}
\ No newline at end of file
+}
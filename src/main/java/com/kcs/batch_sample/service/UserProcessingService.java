@@ -1,66 +1,58 @@
 package com.kcs.batch_sample.service;
 
-import com.kcs.batch_sample.batch.job.GenericBatchProcessingJob;
-import com.kcs.batch_sample.domain.User;
-import com.kcs.batch_sample.dto.UserCreationDto;
-import com.kcs.batch_sample.dto.UserInfo;
-import com.kcs.batch_sample.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.kcs.batch_sample.batch.job.ImportMode;
+import com.kcs.batch_sample.batch.job.UserProcessingJob;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserProcessingService {
-    private final GenericBatchProcessingJob<UserInfo, User> genericBatchProcessingJob;
-    private final JobLauncher jobLauncher;
-    private final UserRepository userRepository;
-
-    public JobExecution processUsers(UserCreationDto userCreationDto, int chunkSize) throws JobExecutionException {
-        Job job = genericBatchProcessingJob.createJob(
-                userReader(userCreationDto),
-                userProcessor(),
-                userWriter(),
-                "processUsersJob",
-                "processUsersStep",
-                chunkSize
-        );
-
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addLong("time", System.currentTimeMillis())
-                .toJobParameters();
-
-        return jobLauncher.run(job, jobParameters);
+    private final JobLaunchService jobLaunchService;
+    private final PayloadStore payloadStore;
+    private final Job processUsersJob;
+    private final Job processUsersParallelJob;
+
+    public UserProcessingService(
+            JobLaunchService jobLaunchService,
+            PayloadStore payloadStore,
+            @Qualifier("processUsersJob") Job processUsersJob,
+            @Qualifier("processUsersParallelJob") Job processUsersParallelJob) {
+        this.jobLaunchService = jobLaunchService;
+        this.payloadStore = payloadStore;
+        this.processUsersJob = processUsersJob;
+        this.processUsersParallelJob = processUsersParallelJob;
     }
 
-    private ItemReader<UserInfo> userReader(UserCreationDto userCreationDto) {
-
-        return new ListItemReader<>(userCreationDto.users());
+    public JobExecution processUsers(InputStream userCreationPayload, int chunkSize, ImportMode mode, boolean parallel,
+                                     boolean async) throws JobExecutionException, IOException {
+        return launch(userCreationPayload, (long) chunkSize, mode, parallel, async);
     }
 
-    private ItemProcessor<UserInfo, User> userProcessor() {
-        return userInfo -> {
-            if ("invalid_email".equals(userInfo.email())) {
-                log.error("Invalid email for user: {}", userInfo.username());
-                throw new RuntimeException("Invalid email for user: " + userInfo.username());
-            }
-            return User.builder().username(userInfo.username()).email(userInfo.email()).build();
-        };
+    /**
+     * Runs with the adaptive chunk size policy instead of a fixed chunk size.
+     */
+    public JobExecution processUsersAdaptive(InputStream userCreationPayload, ImportMode mode, boolean parallel,
+                                             boolean async) throws JobExecutionException, IOException {
+        return launch(userCreationPayload, null, mode, parallel, async);
     }
 
-    private ItemWriter<User> userWriter() {
-        return users -> {
-            for (User user : users) {
-                User savedUser = userRepository.save(user);
-                log.info("User saved: {}", savedUser);
-            }
-        };
+    private JobExecution launch(InputStream userCreationPayload, Long chunkSize, ImportMode mode, boolean parallel,
+                                boolean async) throws JobExecutionException, IOException {
+        JobParametersBuilder builder = new JobParametersBuilder()
+                .addLong("time", System.currentTimeMillis())
+                .addString(PayloadStore.PAYLOAD_ID_PARAMETER, payloadStore.stage(userCreationPayload))
+                .addString(ImportMode.PARAMETER, mode.name());
+        if (chunkSize != null) {
+            builder.addLong(UserProcessingJob.CHUNK_SIZE_PARAMETER, chunkSize);
+        }
+
+        return jobLaunchService.launch(parallel ? processUsersParallelJob : processUsersJob, builder.toJobParameters(), async);
     }
 }
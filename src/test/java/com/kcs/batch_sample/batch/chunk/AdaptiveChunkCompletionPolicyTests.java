@@ -0,0 +1,134 @@
+package com.kcs.batch_sample.batch.chunk;
+
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveChunkCompletionPolicyTests {
+
+    private static final long TARGET_MILLIS = 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BatchMetricsListener batchMetricsListener = new BatchMetricsListener(meterRegistry);
+    private final StepExecution stepExecution = new JobExecution(new JobInstance(1L, "importJob"), 1L, new JobParameters())
+            .createStepExecution("processUsersStep");
+    private final ChunkContext context = new ChunkContext(new StepContext(stepExecution));
+    private long nanos;
+
+    @Test
+    void growsTowardsTheTargetTimeAtMostTwofoldPerChunkUpToTheMaximum() {
+        AdaptiveChunkCompletionPolicy policy = policy(100, 10, 1000);
+
+        // 0.5 ms per item, 200 items fill the 100 ms target
+        assertThat(chunk(policy, 50)).isEqualTo(200);
+        // 0.1 ms per item would allow 1000, but growth stops at twice the current size
+        assertThat(chunk(policy, 20)).isEqualTo(400);
+        assertThat(chunk(policy, 10)).isEqualTo(800);
+        assertThat(chunk(policy, 10)).isEqualTo(1000);
+        assertThat(chunk(policy, 10)).isEqualTo(1000);
+    }
+
+    @Test
+    void shrinksAtMostByHalfPerChunkDownToTheMinimum() {
+        AdaptiveChunkCompletionPolicy policy = policy(200, 20, 1000);
+
+        // 10 ms per item would call for 10 items
+        assertThat(chunk(policy, 2000)).isEqualTo(100);
+        assertThat(chunk(policy, 1000)).isEqualTo(50);
+        assertThat(chunk(policy, 500)).isEqualTo(25);
+        assertThat(chunk(policy, 250)).isEqualTo(20);
+        // On target: stays put
+        assertThat(chunk(policy, 100)).isEqualTo(20);
+    }
+
+    @Test
+    void halvesAfterARollbackAndDoesNotGrowForThreeChunks() {
+        AdaptiveChunkCompletionPolicy policy = policy(400, 10, 1000);
+
+        policy.beforeChunk(context);
+        policy.afterChunkError(context);
+        assertThat(policy.getChunkSize()).isEqualTo(200);
+
+        assertThat(chunk(policy, 10)).isEqualTo(200);
+        assertThat(chunk(policy, 10)).isEqualTo(200);
+        assertThat(chunk(policy, 10)).isEqualTo(200);
+        assertThat(chunk(policy, 10)).isEqualTo(400);
+    }
+
+    @Test
+    void shrinksDuringTheCooldown() {
+        AdaptiveChunkCompletionPolicy policy = policy(400, 10, 1000);
+        policy.beforeChunk(context);
+        policy.afterChunkError(context);
+
+        assertThat(chunk(policy, 400)).isEqualTo(100);
+    }
+
+    @Test
+    void aRollbackNeverShrinksBelowTheMinimum() {
+        AdaptiveChunkCompletionPolicy policy = policy(15, 10, 1000);
+
+        policy.afterChunkError(context);
+        policy.afterChunkError(context);
+
+        assertThat(policy.getChunkSize()).isEqualTo(10);
+    }
+
+    @Test
+    void clampsTheInitialSizeAndRejectsInvalidBounds() {
+        assertThat(policy(5000, 10, 1000).getChunkSize()).isEqualTo(1000);
+        assertThat(policy(1, 10, 1000).getChunkSize()).isEqualTo(10);
+        assertThatThrownBy(() -> policy(100, 0, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> policy(100, 500, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aFixedSizeNeverChanges() {
+        AdaptiveChunkCompletionPolicy policy = AdaptiveChunkCompletionPolicy.fixed(50, batchMetricsListener);
+
+        assertThat(chunk(policy, 1)).isEqualTo(50);
+        assertThat(chunk(policy, 10_000)).isEqualTo(50);
+        policy.afterChunkError(context);
+        assertThat(policy.getChunkSize()).isEqualTo(50);
+        assertThat(chunkSizeGauge()).isEqualTo(50);
+    }
+
+    @Test
+    void publishesTheSizeChosenAfterEachChunk() {
+        AdaptiveChunkCompletionPolicy policy = policy(100, 10, 1000);
+
+        chunk(policy, 50);
+        assertThat(chunkSizeGauge()).isEqualTo(200);
+        policy.afterChunkError(context);
+        assertThat(chunkSizeGauge()).isEqualTo(100);
+    }
+
+    private AdaptiveChunkCompletionPolicy policy(int initialSize, int minSize, int maxSize) {
+        return new AdaptiveChunkCompletionPolicy(initialSize, minSize, maxSize, TARGET_MILLIS, batchMetricsListener,
+                () -> nanos);
+    }
+
+    // Runs a full chunk of the current size taking the given time, returns the size chosen for the next one
+    private int chunk(AdaptiveChunkCompletionPolicy policy, long millis) {
+        policy.beforeChunk(context);
+        nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        stepExecution.setReadCount(stepExecution.getReadCount() + policy.getChunkSize());
+        policy.afterChunk(context);
+        return policy.getChunkSize();
+    }
+
+    private double chunkSizeGauge() {
+        return meterRegistry.get("batch.chunk.size").tags("job", "importJob", "step", "processUsersStep").gauge().value();
+    }
+}
@@ -0,0 +1,240 @@
+package com.kcs.batch_sample.batch.compensation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.batch.writer.BoardImportWriter;
+import com.kcs.batch_sample.batch.writer.BoardJdbcBatchWriter;
+import com.kcs.batch_sample.batch.writer.JournalingItemWriter;
+import com.kcs.batch_sample.batch.writer.UserJdbcBatchWriter;
+import com.kcs.batch_sample.batch.writer.UserUpsertWriter;
+import com.kcs.batch_sample.domain.Board;
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportCompensationListenerTests {
+
+    private static final JournaledTable USERS = new JournaledTable("users", "user_id");
+    private static final JournaledTable BOARDS = new JournaledTable("board", "board_id");
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private PayloadStore payloadStore;
+    private ImportJournal importJournal;
+    private UserIdResolver userIdResolver;
+    private PooledIdAllocator idAllocator;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private volatile boolean validationFails;
+    private final BatchLogSink batchLogSink = mock(BatchLogSink.class);
+    private final String payloadId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, CONSTRAINT uk_users_username UNIQUE (username))");
+        jdbcTemplate.execute("CREATE TABLE board (board_id BIGINT PRIMARY KEY, title VARCHAR(20) NOT NULL, "
+                + "content VARCHAR(255) NOT NULL, user_id BIGINT NOT NULL REFERENCES users (user_id))");
+        transactionManager = new DataSourceTransactionManager(database);
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        AtomicLong allocatedIds = new AtomicLong();
+        idAllocator = mock(PooledIdAllocator.class);
+        when(idAllocator.nextId(any())).thenAnswer(invocation -> allocatedIds.incrementAndGet());
+        namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(database);
+        userIdResolver = new UserIdResolver(namedParameterJdbcTemplate, new SimpleMeterRegistry(), 100);
+        payloadStore = new PayloadStore(new ObjectMapper(), tempDir.toString());
+        importJournal = new ImportJournal(payloadStore, namedParameterJdbcTemplate, transactionManager, userIdResolver);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void anAtomicImportThatFailsIsCompensatedAndAbandoned() throws Exception {
+        JobExecution jobExecution = run(true, "missing");
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.ABANDONED);
+        assertThat(jobExecution.getExitStatus().getExitCode()).isEqualTo("COMPENSATED");
+        assertThat(rows("users")).isZero();
+        assertThat(rows("board")).isZero();
+        assertThat(payloadStore.journal(payloadId, "users")).doesNotExist();
+        assertThat(payloadStore.journal(payloadId, "board")).doesNotExist();
+        // Users 1-3 and the board committed before the failing one
+        verify(batchLogSink).record(any(JobExecution.class), isNull(), eq("Import Compensated"),
+                eq("Deleted 4 rows inserted by the failed import"));
+    }
+
+    @Test
+    void aNonAtomicImportThatFailsKeepsItsCommittedChunks() throws Exception {
+        JobExecution jobExecution = run(false, "missing");
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(rows("users")).isEqualTo(3);
+        assertThat(rows("board")).isEqualTo(1);
+        verify(batchLogSink, never()).record(any(), any(), anyString(), any());
+    }
+
+    @Test
+    void anAtomicImportThatCompletesKeepsItsRowsAndDropsItsJournals() throws Exception {
+        JobExecution jobExecution = run(true, "user3");
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(rows("users")).isEqualTo(3);
+        assertThat(rows("board")).isEqualTo(2);
+        assertThat(payloadStore.journal(payloadId, "users")).doesNotExist();
+        assertThat(payloadStore.journal(payloadId, "board")).doesNotExist();
+    }
+
+    @Test
+    void anAtomicImportThatFailsBeforeInsertingStaysFailedAndRestartable() throws Exception {
+        validationFails = true;
+        Job job = job(new UserJdbcBatchWriter(jdbcTemplate, idAllocator, userIdResolver), "user3");
+
+        JobExecution jobExecution = launch(job, true);
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(jobExecution.getExitStatus().getExitCode()).isNotEqualTo("COMPENSATED");
+        verify(batchLogSink, never()).record(any(), any(), anyString(), any());
+
+        validationFails = false;
+        JobExecution restarted = launch(job, true);
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(jobExecution.getJobInstance().getInstanceId());
+        assertThat(rows("users")).isEqualTo(3);
+    }
+
+    @Test
+    void anAtomicUpsertThatFailsDeletesOnlyTheUsersItInserted() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (1000, 'user1', 'old@example.com')");
+        UserUpsertWriter upsertWriter = new UserUpsertWriter(jdbcTemplate, namedParameterJdbcTemplate, idAllocator,
+                userIdResolver, database);
+
+        JobExecution jobExecution = launch(job(upsertWriter, "missing"), true);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.ABANDONED);
+        // user1 was updated under a pool id of its own that matches no row: it keeps its id and its new email
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT(user_id, ':', username, ':', email) FROM users", String.class))
+                .containsExactly("1000:user1:user1@example.com");
+        assertThat(rows("board")).isZero();
+        // user2, user3 and the board of user1
+        verify(batchLogSink).record(any(JobExecution.class), isNull(), eq("Import Compensated"),
+                eq("Deleted 3 rows inserted by the failed import"));
+    }
+
+    private JobExecution run(boolean atomic, String secondBoardUser) throws Exception {
+        return launch(job(new UserJdbcBatchWriter(jdbcTemplate, idAllocator, userIdResolver), secondBoardUser), atomic);
+    }
+
+    // Validates, imports three users, then a board of user1 and one of the given user, one board per chunk
+    private Job job(ItemWriter<User> usersWriter, String secondBoardUser) {
+        List<User> users = List.of(user("user1"), user("user2"), user("user3"));
+        List<Board> boards = List.of(board("first", "user1"), board("second", secondBoardUser));
+        return new JobBuilder("userBoardJob", jobRepository)
+                .listener(new ImportCompensationListener(importJournal, batchLogSink, List.of(BOARDS, USERS)))
+                .start(new StepBuilder("validateStep", jobRepository)
+                        .tasklet((contribution, chunkContext) -> {
+                            if (validationFails) {
+                                throw new IllegalStateException("Payload unreadable");
+                            }
+                            return RepeatStatus.FINISHED;
+                        }, transactionManager)
+                        .build())
+                .next(new StepBuilder("importUsersStep", jobRepository)
+                        .<User, User>chunk(2, transactionManager)
+                        .reader(new ListItemReader<>(users))
+                        .writer(new JournalingItemWriter<>(usersWriter, importJournal, payloadId, USERS, User::getId))
+                        .build())
+                .next(new StepBuilder("importBoardsStep", jobRepository)
+                        .<Board, Board>chunk(1, transactionManager)
+                        .reader(new ListItemReader<>(boards))
+                        .writer(new JournalingItemWriter<>(new BoardImportWriter(userIdResolver,
+                                new BoardJdbcBatchWriter(jdbcTemplate, idAllocator)),
+                                importJournal, payloadId, BOARDS, Board::getId))
+                        .build())
+                .build();
+    }
+
+    private JobExecution launch(Job job, boolean atomic) throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString(PayloadStore.PAYLOAD_ID_PARAMETER, payloadId)
+                .addJobParameter(ImportCompensationListener.ATOMIC_PARAMETER, atomic, Boolean.class)
+                .toJobParameters();
+        return jobLauncher.run(job, jobParameters);
+    }
+
+    private int rows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static User user(String username) {
+        return User.builder().username(username).email(username + "@example.com").build();
+    }
+
+    private static Board board(String title, String username) {
+        return Board.builder()
+                .title(title)
+                .content(title + " content")
+                .user(User.builder().username(username).build())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.kcs.batch_sample.batch.compensation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportJournalTests {
+
+    private static final JournaledTable USERS = new JournaledTable("users", "user_id");
+    private static final JournaledTable BOARDS = new JournaledTable("board", "board_id");
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private PayloadStore payloadStore;
+    private UserIdResolver userIdResolver;
+    private ImportJournal importJournal;
+    private final String payloadId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE board (board_id BIGINT PRIMARY KEY, title VARCHAR(255), content VARCHAR(255), "
+                + "user_id BIGINT NOT NULL REFERENCES users (user_id))");
+        payloadStore = new PayloadStore(new ObjectMapper(), tempDir.toString());
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(database);
+        userIdResolver = new UserIdResolver(namedParameterJdbcTemplate, new SimpleMeterRegistry(), 100);
+        importJournal = new ImportJournal(payloadStore, namedParameterJdbcTemplate,
+                new DataSourceTransactionManager(database), userIdResolver);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void compensationDeletesTheJournaledRowsChildrenFirstAndRemovesTheJournals() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)", id, "u" + id, "u" + id + "@example.com");
+        }
+        jdbcTemplate.update("INSERT INTO board (board_id, title, content, user_id) VALUES (10, 't', 'c', 1)");
+        importJournal.append(payloadId, USERS, List.of(1L));
+        importJournal.append(payloadId, USERS, List.of(2L));
+        importJournal.append(payloadId, BOARDS, List.of(10L));
+        // Resolved before the compensation, must not be served from the cache afterwards
+        assertThat(userIdResolver.resolve(List.of("u1"))).containsKey("u1");
+
+        long deleted = importJournal.compensate(payloadId, List.of(BOARDS, USERS));
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM users", Long.class)).containsExactly(3L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM board", Integer.class)).isZero();
+        assertThat(userIdResolver.resolve(List.of("u1"))).isEmpty();
+        assertThat(payloadStore.journal(payloadId, "users")).doesNotExist();
+        assertThat(payloadStore.journal(payloadId, "board")).doesNotExist();
+    }
+
+    @Test
+    void idsOfRolledBackChunksAndOfSeveralDeleteBatchesAreCompensated() throws Exception {
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            users.add(new Object[]{id, "u" + id, "u" + id + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)", users);
+        importJournal.append(payloadId, USERS, LongStream.rangeClosed(1, 1200).boxed().toList());
+        // A chunk journaled before it rolled back: its ids match no row
+        importJournal.append(payloadId, USERS, LongStream.rangeClosed(9001, 9100).boxed().toList());
+        importJournal.append(payloadId, USERS, LongStream.rangeClosed(1201, 2500).boxed().toList());
+
+        assertThat(importJournal.compensate(payloadId, List.of(USERS))).isEqualTo(2500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isZero();
+    }
+
+    @Test
+    void deletingTheJournalsOfACompletedImportKeepsItsRows() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (1, 'u1', 'u1@example.com')");
+        importJournal.append(payloadId, USERS, List.of(1L));
+
+        importJournal.delete(payloadId, List.of(BOARDS, USERS));
+
+        assertThat(payloadStore.journal(payloadId, "users")).doesNotExist();
+        assertThat(importJournal.compensate(payloadId, List.of(USERS))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isEqualTo(1);
+    }
+}
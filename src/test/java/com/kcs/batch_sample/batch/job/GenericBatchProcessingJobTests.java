@@ -0,0 +1,154 @@
+package com.kcs.batch_sample.batch.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.log.BatchLogSink;
+import com.kcs.batch_sample.batch.metrics.BatchMetricsListener;
+import com.kcs.batch_sample.batch.staging.PayloadCleanupListener;
+import com.kcs.batch_sample.batch.writer.UserJdbcBatchWriter;
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.dto.UserInfo;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenericBatchProcessingJobTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JobRepository jobRepository;
+    private GenericBatchProcessingJob<UserInfo, User> genericBatchProcessingJob;
+    private UserJdbcBatchWriter userWriter;
+    private final BatchLogSink batchLogSink = mock(BatchLogSink.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, CONSTRAINT uk_users_username UNIQUE (username))");
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (1, 'existing', 'existing@example.com')");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(database);
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        genericBatchProcessingJob = new GenericBatchProcessingJob<>(jobRepository, transactionManager,
+                batchLogSink, new BatchMetricsListener(meterRegistry), new ObjectMapper(),
+                mock(PayloadCleanupListener.class), new SimpleAsyncTaskExecutor("processing-"));
+
+        AtomicLong allocatedIds = new AtomicLong(100);
+        PooledIdAllocator idAllocator = mock(PooledIdAllocator.class);
+        when(idAllocator.nextId(any())).thenAnswer(invocation -> allocatedIds.incrementAndGet());
+        userWriter = new UserJdbcBatchWriter(jdbcTemplate, idAllocator,
+                new UserIdResolver(new NamedParameterJdbcTemplate(database), meterRegistry, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void skipsUsersWhoseUsernameExistsAndInsertsTheRestOfTheChunk(boolean parallel) throws Exception {
+        JobExecution jobExecution = run(parallel, Integer.MAX_VALUE);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // Processing the chunk again for the item by item retry would filter every username already seen
+        assertThat(jdbcTemplate.queryForList("SELECT username FROM users ORDER BY username", String.class))
+                .containsExactly("a", "b", "c", "existing");
+        StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+        // A resubmitted payload completes, telling the skips apart only by its exit code
+        assertThat(stepExecution.getExitStatus().getExitCode()).isEqualTo("COMPLETED_WITH_SKIPS");
+        assertThat(jobExecution.getExitStatus().getExitCode()).isEqualTo("COMPLETED_WITH_SKIPS");
+    }
+
+    @Test
+    void failsOnceMoreUsernamesExistThanTheSkipLimitAllows() throws Exception {
+        JobExecution jobExecution = run(false, 0);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(jobExecution.getExitStatus().getExitCode()).isEqualTo(ExitStatus.FAILED.getExitCode());
+        assertThat(jobExecution.getAllFailureExceptions()).anySatisfy(e ->
+                assertThat(e).isInstanceOfAny(SkipLimitExceededException.class, DuplicateKeyException.class));
+        // Users retried ahead of the duplicate were committed one by one before the limit was hit
+        assertThat(jdbcTemplate.queryForList("SELECT username FROM users", String.class)).doesNotContain("b", "c");
+    }
+
+    @Test
+    void flushesTheStepLogBeforeTheStepEnds() throws Exception {
+        JobExecution jobExecution = run(false, Integer.MAX_VALUE);
+
+        InOrder inOrder = inOrder(batchLogSink);
+        inOrder.verify(batchLogSink).record(any(), eq("processUsersStep"), eq("Item Skipped"), anyString());
+        inOrder.verify(batchLogSink).record(eq(jobExecution), eq("processUsersStep"), eq("Step Finished"), anyString());
+        inOrder.verify(batchLogSink).flush();
+    }
+
+    private JobExecution run(boolean parallel, int skipLimit) throws Exception {
+        List<UserInfo> users = List.of(user("a"), user("existing"), user("b"), user("a"), user("c"));
+        Set<String> usernames = ConcurrentHashMap.newKeySet();
+        ItemProcessor<UserInfo, User> processor = userInfo -> usernames.add(userInfo.username())
+                ? User.builder().username(userInfo.username()).email(userInfo.email()).build()
+                : null;
+        Job job = genericBatchProcessingJob.createJob(null, new ListItemReader<>(users), processor, userWriter,
+                "processUsersJob", "processUsersStep", new SimpleCompletionPolicy(10), parallel,
+                DuplicateKeyException.class, skipLimit);
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher.run(job, new JobParametersBuilder().addLong("time", System.nanoTime()).toJobParameters());
+    }
+
+    private static UserInfo user(String username) {
+        return new UserInfo(username, username + "@example.com");
+    }
+}
@@ -0,0 +1,218 @@
+package com.kcs.batch_sample.batch.log;
+
+import com.kcs.batch_sample.batch.log.BatchLogSink.OverflowPolicy;
+import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.repository.BatchLogRepository;
+import com.kcs.batch_sample.repository.BatchLogSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchLogSinkTests {
+
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private EmbeddedDatabase database;
+    private DataSourceTransactionManager transactionManager;
+    private final BatchLogRepository batchLogRepository = mock(BatchLogRepository.class);
+    private final BatchLogSummaryRepository batchLogSummaryRepository = mock(BatchLogSummaryRepository.class);
+    private final JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importJob"), 1L, new JobParameters());
+    // Messages of each saveAll, the thread it ran on and the transaction of saveAll and of the summary increment
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private final List<Object> saveTransactions = new CopyOnWriteArrayList<>();
+    private final List<Object> summaryTransactions = new CopyOnWriteArrayList<>();
+    private final List<BatchLogSink> sinks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        transactionManager = new DataSourceTransactionManager(database);
+        when(batchLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BatchLog> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(BatchLog::getErrorMessage).toList());
+            writerThreads.add(Thread.currentThread().getName());
+            saveTransactions.add(TransactionSynchronizationManager.getResource(database));
+            return batch;
+        });
+        doAnswer(invocation -> summaryTransactions.add(TransactionSynchronizationManager.getResource(database)))
+                .when(batchLogSummaryRepository).increment(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (BatchLogSink sink : sinks) {
+            sink.destroy();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    void writesOnceFlushSizeRowsAreQueued() throws Exception {
+        BatchLogSink sink = started(sink(100, 3, NEVER, OverflowPolicy.CALLER_RUNS));
+
+        record(sink, "m1", "m2");
+        Thread.sleep(100);
+        assertThat(batches).isEmpty();
+        record(sink, "m3");
+
+        awaitWritten(3);
+        assertThat(batches).containsExactly(List.of("m1", "m2", "m3"));
+        assertThat(writerThreads).containsExactly("batch-log-sink");
+    }
+
+    @Test
+    void writesQueuedRowsEveryFlushInterval() throws Exception {
+        BatchLogSink sink = started(sink(100, 100, 50, OverflowPolicy.CALLER_RUNS));
+
+        record(sink, "m1");
+
+        awaitWritten(1);
+        assertThat(batches).containsExactly(List.of("m1"));
+        assertThat(sink.getQueueSize()).isZero();
+    }
+
+    @Test
+    void callerRunsWritesTheQueuedRowsOnTheCallingThreadWhenTheQueueIsFull() {
+        BatchLogSink sink = sink(2, 100, NEVER, OverflowPolicy.CALLER_RUNS);
+
+        record(sink, "m1", "m2", "m3");
+
+        assertThat(batches).containsExactly(List.of("m1", "m2"));
+        assertThat(writerThreads).containsExactly(Thread.currentThread().getName());
+        assertThat(sink.getQueueSize()).isEqualTo(1);
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void dropDiscardsAndCountsTheRowsThatDoNotFit() {
+        BatchLogSink sink = sink(2, 100, NEVER, OverflowPolicy.DROP);
+
+        record(sink, "m1", "m2", "m3");
+        assertThat(batches).isEmpty();
+        assertThat(sink.getDroppedCount()).isEqualTo(1);
+
+        sink.flush();
+        assertThat(batches).containsExactly(List.of("m1", "m2"));
+    }
+
+    @Test
+    void blockWaitsForRoomInTheQueue() throws Exception {
+        BatchLogSink sink = sink(1, 100, NEVER, OverflowPolicy.BLOCK);
+        record(sink, "m1");
+
+        Thread caller = new Thread(() -> record(sink, "m2"));
+        caller.start();
+        caller.join(100);
+        assertThat(caller.isAlive()).isTrue();
+
+        sink.flush();
+        caller.join(5000);
+        assertThat(caller.isAlive()).isFalse();
+        sink.flush();
+        assertThat(batches.stream().flatMap(List::stream)).containsExactly("m1", "m2");
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void leavesNothingUnwrittenAfterTheJobOrOnShutdown() throws Exception {
+        BatchLogSink sink = started(sink(100, 100, NEVER, OverflowPolicy.CALLER_RUNS));
+
+        record(sink, "m1", "m2");
+        sink.afterJob(jobExecution);
+        assertThat(batches).containsExactly(List.of("m1", "m2"));
+
+        record(sink, "m3");
+        sink.destroy();
+        assertThat(batches).containsExactly(List.of("m1", "m2"), List.of("m3"));
+        assertThat(sink.getQueueSize()).isZero();
+    }
+
+    @Test
+    void flushWritesEverythingQueuedInBatchesOfFlushSize() {
+        BatchLogSink sink = sink(100, 2, NEVER, OverflowPolicy.CALLER_RUNS);
+
+        record(sink, "m1", "m2", "m3");
+        sink.flush();
+
+        assertThat(batches).containsExactly(List.of("m1", "m2"), List.of("m3"));
+    }
+
+    @Test
+    void writesTheRowsAndTheirSummaryInOneTransactionOfTheirOwn() {
+        BatchLogSink sink = sink(100, 100, NEVER, OverflowPolicy.CALLER_RUNS);
+        List<Object> chunkTransaction = new ArrayList<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            chunkTransaction.add(TransactionSynchronizationManager.getResource(database));
+            record(sink, "m1");
+            sink.flush();
+        });
+
+        assertThat(saveTransactions).hasSize(1).doesNotContainNull();
+        assertThat(summaryTransactions).isEqualTo(saveTransactions);
+        // Suspended for the write, so a chunk rolling back does not take its log rows with it
+        assertThat(saveTransactions.get(0)).isNotSameAs(chunkTransaction.get(0));
+    }
+
+    @Test
+    void countsTheRowsOfAFailedWriteAsDropped() {
+        doThrow(new IllegalStateException("Database unavailable")).when(batchLogRepository).saveAll(anyList());
+        BatchLogSink sink = sink(100, 100, NEVER, OverflowPolicy.CALLER_RUNS);
+
+        record(sink, "m1", "m2");
+        sink.flush();
+
+        assertThat(sink.getDroppedCount()).isEqualTo(2);
+        assertThat(sink.getQueueSize()).isZero();
+    }
+
+    // Not started: rows stay queued until the test flushes them or the queue overflows
+    private BatchLogSink sink(int queueCapacity, int flushSize, long flushIntervalMillis, OverflowPolicy overflowPolicy) {
+        return new BatchLogSink(batchLogRepository, batchLogSummaryRepository, transactionManager,
+                queueCapacity, flushSize, flushIntervalMillis, overflowPolicy);
+    }
+
+    private BatchLogSink started(BatchLogSink sink) {
+        sink.afterPropertiesSet();
+        sinks.add(sink);
+        return sink;
+    }
+
+    private void record(BatchLogSink sink, String... messages) {
+        for (String message : messages) {
+            sink.record(jobExecution, "importStep", message, null);
+        }
+    }
+
+    private void awaitWritten(int rows) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batches.stream().mapToInt(List::size).sum() < rows && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.kcs.batch_sample.batch.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchMetricsListenerTests {
+
+    private static final Tags TAGS = Tags.of("job", "importJob", "step", "importStep");
+
+    private EmbeddedDatabase database;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BatchMetricsListener listener = new BatchMetricsListener(meterRegistry);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(database);
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void publishesChunkItemAndSkipMetersOfAFaultTolerantStep() throws Exception {
+        StepExecution stepExecution = execute("importStep", faultTolerantStep("importStep",
+                List.of("a", "b", "bad-read", "c", "bad-process", "d", "bad-write", "e")));
+
+        // Skips reach the listener without registering it as a SkipListener, the builder does it
+        assertThat(counter("batch.items.skipped", "phase", "read")).isEqualTo(1);
+        assertThat(counter("batch.items.skipped", "phase", "process")).isEqualTo(1);
+        assertThat(counter("batch.items.skipped", "phase", "write")).isEqualTo(1);
+        // Items read before a rollback are counted once, when the retried chunk commits
+        assertThat(counter("batch.items.read")).isEqualTo(stepExecution.getReadCount()).isEqualTo(7);
+        assertThat(counter("batch.items.written")).isEqualTo(stepExecution.getWriteCount()).isEqualTo(5);
+        assertThat(counter("batch.chunk.rollbacks")).isEqualTo(stepExecution.getRollbackCount()).isEqualTo(3);
+        // [a b c], d and e committed with their writes; the chunk of the skipped bad-write wrote nothing
+        assertThat(timer("batch.chunk").count()).isEqualTo(stepExecution.getCommitCount()).isEqualTo(4);
+        for (String phase : List.of("read", "process", "write", "commit")) {
+            Timer timer = timer("batch.chunk." + phase);
+            assertThat(timer.count()).as(phase).isEqualTo(3);
+            assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).as(phase).isPositive();
+        }
+        assertThat(timer("batch.chunk").totalTime(TimeUnit.NANOSECONDS))
+                .isGreaterThanOrEqualTo(timer("batch.chunk.write").totalTime(TimeUnit.NANOSECONDS));
+        assertThat(meterRegistry.get("batch.step.throughput").tags(TAGS).summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsEveryItemOfAMultiThreadedStepOnce() throws Exception {
+        ConcurrentLinkedQueue<String> items = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 100; i++) {
+            items.add("item-" + i);
+        }
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("chunk-");
+        taskExecutor.setConcurrencyLimit(4);
+        TaskletStep step = listener.register(new StepBuilder("importStep", jobRepository)
+                        .<String, String>chunk(5, transactionManager))
+                .reader(items::poll)
+                .writer(chunk -> {
+                })
+                .taskExecutor(taskExecutor)
+                .build();
+
+        StepExecution stepExecution = execute("importStep", step);
+
+        assertThat(counter("batch.items.read")).isEqualTo(100);
+        assertThat(counter("batch.items.written")).isEqualTo(100);
+        assertThat(timer("batch.chunk").count()).isEqualTo(stepExecution.getCommitCount());
+        assertThat(timer("batch.chunk.write").count()).isEqualTo(20);
+    }
+
+    @Test
+    void tagsAPartitionWithTheNameOfItsWorkerStep() throws Exception {
+        execute("importStep:partition0", faultTolerantStep("importStep:partition0", List.of("a", "bad-process")));
+
+        assertThat(counter("batch.items.written")).isEqualTo(1);
+        assertThat(counter("batch.items.skipped", "phase", "process")).isEqualTo(1);
+        assertThat(meterRegistry.find("batch.items.written").tag("step", "importStep:partition0").counter()).isNull();
+    }
+
+    private double counter(String name, String... tags) {
+        return meterRegistry.get(name).tags(TAGS).tags(tags).counter().count();
+    }
+
+    private Timer timer(String name) {
+        return meterRegistry.get(name).tags(TAGS).timer();
+    }
+
+    // Skips whatever item is named bad-read, bad-process or bad-write in that phase
+    private TaskletStep faultTolerantStep(String stepName, List<String> items) {
+        Iterator<String> iterator = items.iterator();
+        ItemReader<String> reader = () -> {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            String item = iterator.next();
+            if (item.equals("bad-read")) {
+                throw new IllegalArgumentException("Unreadable " + item);
+            }
+            return item;
+        };
+        return listener.register(new StepBuilder(stepName, jobRepository)
+                        .<String, String>chunk(3, transactionManager))
+                .reader(reader)
+                .processor(item -> {
+                    if (item.equals("bad-process")) {
+                        throw new IllegalArgumentException("Unprocessable " + item);
+                    }
+                    return item;
+                })
+                .writer(chunk -> {
+                    if (chunk.getItems().contains("bad-write")) {
+                        throw new IllegalArgumentException("Unwritable chunk " + chunk.getItems());
+                    }
+                })
+                .faultTolerant()
+                .skip(IllegalArgumentException.class)
+                .skipLimit(10)
+                .build();
+    }
+
+    private StepExecution execute(String stepName, TaskletStep step) throws Exception {
+        StepExecution stepExecution = jobRepository.createJobExecution("importJob",
+                new JobParametersBuilder().addLong("run", 1L).toJobParameters()).createStepExecution(stepName);
+        jobRepository.add(stepExecution);
+        step.execute(stepExecution);
+        assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        return stepExecution;
+    }
+}
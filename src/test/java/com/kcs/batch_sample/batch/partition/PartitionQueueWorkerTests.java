@@ -0,0 +1,344 @@
+package com.kcs.batch_sample.batch.partition;
+
+import com.kcs.batch_sample.batch.partition.PartitionWorkQueue.WorkItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionQueueWorkerTests {
+
+    private static final int PARTITIONS = 6;
+    private static final int MAX_ATTEMPTS = 2;
+    private static final int ITEMS = 10;
+    private static final int CHUNK_SIZE = 2;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+    private PartitionWorkQueue workQueue;
+    private BeanFactoryStepLocator stepLocator;
+    private final Map<String, String> executedBy = new ConcurrentHashMap<>();
+    private volatile CountDownLatch concurrentPartitions = new CountDownLatch(0);
+    private volatile int failingItem = -1;
+    private volatile int blockingItem = -1;
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch proceed = new CountDownLatch(1);
+    private final List<PartitionQueueWorker> workers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE batch_partition_queue (step_execution_id BIGINT PRIMARY KEY, "
+                + "job_execution_id BIGINT NOT NULL, step_name VARCHAR(100) NOT NULL, status VARCHAR(16) NOT NULL, "
+                + "owner VARCHAR(200), attempts INT NOT NULL, lease_expires_at TIMESTAMP, heartbeat_at TIMESTAMP, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE worker_item (id INT PRIMARY KEY)");
+        transactionManager = new DataSourceTransactionManager(database);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(database);
+        explorerFactory.setTransactionManager(transactionManager);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+
+        workQueue = new PartitionWorkQueue(jdbcTemplate, transactionManager);
+        stepLocator = new BeanFactoryStepLocator();
+        stepLocator.setBeanFactory(new StaticListableBeanFactory(Map.of("workerStep", workerStep(),
+                "chunkWorkerStep", chunkWorkerStep())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.forEach(PartitionQueueWorker::stop);
+        database.shutdown();
+    }
+
+    @Test
+    void workersOfSeveralNodesShareThePartitionsOfOneJob() throws Exception {
+        concurrentPartitions = new CountDownLatch(2);
+        startWorker("node-a");
+        startWorker("node-b");
+        startWorker("node-c");
+
+        JobExecution jobExecution = launch();
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(executedBy).hasSize(PARTITIONS);
+        // The first partition waits for a second one to start, which only another node's single thread can run
+        assertThat(new ArrayList<>(executedBy.values()).stream().distinct().count()).isGreaterThan(1);
+        assertThat(jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions())
+                .filteredOn(stepExecution -> stepExecution.getStepName().startsWith("workerStep"))
+                .hasSize(PARTITIONS)
+                .allSatisfy(stepExecution -> assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED));
+        assertThat(queuedRows()).isZero();
+    }
+
+    @Test
+    void claimsEachPartitionOnceAndSkipsUnexpiredLeases() {
+        StepExecution first = runningPartition("workerStep:partition0");
+        StepExecution second = runningPartition("workerStep:partition1");
+        workQueue.enqueue("workerStep", List.of(first, second));
+
+        WorkItem claimed = workQueue.claim("node-a#0", Duration.ofMinutes(1)).orElseThrow();
+        WorkItem next = workQueue.claim("node-b#0", Duration.ofMinutes(1)).orElseThrow();
+
+        assertThat(List.of(claimed.stepExecutionId(), next.stepExecutionId())).containsExactly(first.getId(), second.getId());
+        assertThat(claimed.attempts()).isEqualTo(1);
+        assertThat(workQueue.claim("node-c#0", Duration.ofMinutes(1))).isEmpty();
+        assertThat(workQueue.renew(first.getId(), "node-a#0", Duration.ofMinutes(1))).isTrue();
+        assertThat(workQueue.renew(first.getId(), "node-b#0", Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void resumesThePartitionOfANodeWhoseLeaseExpired() throws Exception {
+        StepExecution partition = runningPartition("workerStep:partition0");
+        claimedBy(partition, "dead-node#0", 1);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        startWorker("node-a").bindTo(meterRegistry);
+
+        StepExecution finished = awaitFinished(partition);
+        assertThat(finished.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(executedBy).containsEntry("workerStep:partition0", "node-a#0");
+        assertThat(meterRegistry.get("batch.partition.queue.reclaimed").functionCounter().count()).isEqualTo(1);
+        assertThat(queuedRows()).isZero();
+    }
+
+    @Test
+    void failsAPartitionThatExhaustedItsAttempts() throws Exception {
+        StepExecution partition = runningPartition("workerStep:partition0");
+        claimedBy(partition, "dead-node#0", MAX_ATTEMPTS);
+
+        startWorker("node-a");
+
+        StepExecution finished = awaitFinished(partition);
+        assertThat(finished.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(finished.getExitStatus().getExitDescription()).contains("abandoned after " + MAX_ATTEMPTS + " attempts");
+        assertThat(executedBy).isEmpty();
+        assertThat(queuedRows()).isZero();
+    }
+
+    @Test
+    void resumesAChunkedPartitionFromItsLastCommittedExecutionContext() throws Exception {
+        StepExecution partition = runningPartition("chunkWorkerStep:partition0");
+        failingItem = 6;
+        stepLocator.getStep("chunkWorkerStep").execute(partition);
+        assertThat(partition.getStatus()).isEqualTo(BatchStatus.FAILED);
+        // Left running by a node that died after committing items 0 to 5
+        partition.setStatus(BatchStatus.STARTED);
+        partition.setEndTime(null);
+        jobRepository.update(partition);
+        claimedBy(partition, "chunkWorkerStep", "dead-node#0", 1);
+        failingItem = -1;
+
+        startWorker("node-a");
+
+        StepExecution finished = awaitFinished(partition);
+        assertThat(finished.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // Starting over would have inserted item 0 again and failed on the primary key
+        assertThat(writtenItems()).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(queuedRows()).isZero();
+    }
+
+    @Test
+    void aWorkerWhosePartitionWasTakenOverCannotCommitAnotherChunk() throws Exception {
+        StepExecution partition = runningPartition("chunkWorkerStep:partition0");
+        workQueue.enqueue("chunkWorkerStep", List.of(partition));
+        blockingItem = 4;
+        PartitionQueueWorker worker = startWorker("node-a");
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Another node claims the partition and starts running it, which updates the StepExecution
+        jdbcTemplate.update("UPDATE batch_partition_queue SET owner = 'node-b#0' WHERE step_execution_id = ?", partition.getId());
+        StepExecution takenOver = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+        jobRepository.update(takenOver);
+        proceed.countDown();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (worker.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(worker.getActiveCount()).isZero();
+        assertThat(writtenItems()).containsExactly(0, 1, 2, 3);
+        StepExecution current = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+        assertThat(current.getVersion()).isEqualTo(takenOver.getVersion());
+        assertThat(current.getStatus()).isEqualTo(BatchStatus.STARTED);
+        assertThat(current.getExecutionContext().getInt("rangeReader.read.count")).isEqualTo(4);
+        assertThat(ownerOf(partition)).isEqualTo("node-b#0");
+    }
+
+    private Step workerStep() {
+        return new StepBuilder("workerStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    StepExecution stepExecution = contribution.getStepExecution();
+                    executedBy.put(stepExecution.getStepName(), ownerOf(stepExecution));
+                    concurrentPartitions.countDown();
+                    concurrentPartitions.await(10, TimeUnit.SECONDS);
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    // Reads 0 to ITEMS - 1, keeping its position in the ExecutionContext; inserts each chunk into worker_item
+    private Step chunkWorkerStep() {
+        AbstractItemCountingItemStreamItemReader<Integer> reader = new AbstractItemCountingItemStreamItemReader<>() {
+            @Override
+            protected Integer doRead() {
+                int item = getCurrentItemCount() - 1;
+                return item < ITEMS ? item : null;
+            }
+
+            @Override
+            protected void doOpen() {
+            }
+
+            @Override
+            protected void doClose() {
+            }
+        };
+        reader.setName("rangeReader");
+        return new StepBuilder("chunkWorkerStep", jobRepository)
+                .<Integer, Integer>chunk(CHUNK_SIZE, transactionManager)
+                .reader(reader)
+                .writer(chunk -> {
+                    if (chunk.getItems().contains(failingItem)) {
+                        throw new IllegalStateException("Failed writing item " + failingItem);
+                    }
+                    jdbcTemplate.batchUpdate("INSERT INTO worker_item (id) VALUES (?)",
+                            chunk.getItems().stream().map(item -> new Object[]{item}).toList());
+                    if (chunk.getItems().contains(blockingItem)) {
+                        writing.countDown();
+                        proceed.await(10, TimeUnit.SECONDS);
+                    }
+                })
+                .build();
+    }
+
+    private JobExecution launch() throws Exception {
+        WorkQueuePartitionHandler partitionHandler = new WorkQueuePartitionHandler(workQueue, jobExplorer, "workerStep", 20, 30_000);
+        Job job = new JobBuilder("queuePartitionedJob", jobRepository)
+                .start(new StepBuilder("managerStep", jobRepository)
+                        .partitioner("workerStep", gridSize -> {
+                            Map<String, ExecutionContext> partitions = new HashMap<>();
+                            for (int i = 0; i < PARTITIONS; i++) {
+                                partitions.put("partition" + i, new ExecutionContext());
+                            }
+                            return partitions;
+                        })
+                        .partitionHandler(partitionHandler)
+                        .build())
+                .build();
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher.run(job, new JobParametersBuilder().addLong("time", System.nanoTime()).toJobParameters());
+    }
+
+    private PartitionQueueWorker startWorker(String nodeId) {
+        PartitionQueueWorker worker = new PartitionQueueWorker(workQueue, jobExplorer, jobRepository, stepLocator,
+                nodeId, 1, 20, 2000, MAX_ATTEMPTS);
+        workers.add(worker);
+        worker.start();
+        return worker;
+    }
+
+    private String ownerOf(StepExecution partition) {
+        return jdbcTemplate.queryForObject("SELECT owner FROM batch_partition_queue WHERE step_execution_id = ?",
+                String.class, partition.getId());
+    }
+
+    private StepExecution runningPartition(String stepName) {
+        try {
+            JobExecution jobExecution = jobRepository.createJobExecution("queuePartitionedJob",
+                    new JobParametersBuilder().addLong("time", System.nanoTime()).toJobParameters());
+            StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+            jobRepository.add(stepExecution);
+            stepExecution.setStatus(BatchStatus.STARTED);
+            jobRepository.update(stepExecution);
+            return stepExecution;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void claimedBy(StepExecution partition, String owner, int attempts) {
+        claimedBy(partition, "workerStep", owner, attempts);
+    }
+
+    private void claimedBy(StepExecution partition, String stepName, String owner, int attempts) {
+        jdbcTemplate.update("INSERT INTO batch_partition_queue (step_execution_id, job_execution_id, step_name, status, owner, "
+                        + "attempts, lease_expires_at, created_at) VALUES (?, ?, ?, 'CLAIMED', ?, ?, ?, ?)",
+                partition.getId(), partition.getJobExecutionId(), stepName, owner, attempts,
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().minusMinutes(10));
+    }
+
+    private StepExecution awaitFinished(StepExecution partition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        StepExecution current = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+        while (current.getStatus().isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            current = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+        }
+        // The row is removed right after the outcome is recorded
+        while (queuedRows() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return current;
+    }
+
+    private List<Integer> writtenItems() {
+        return jdbcTemplate.queryForList("SELECT id FROM worker_item ORDER BY id", Integer.class);
+    }
+
+    private int queuedRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM batch_partition_queue", Integer.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.dto.BoardInfo;
+import com.kcs.batch_sample.dto.UserInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The test JVM runs with a fixed heap (see build.gradle), which is far smaller than the
+ * materialized list of users would need.
+ */
+class JsonArrayItemReaderTests {
+
+    private static final int USER_COUNT = 2_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamsMultiMillionElementPayloadWithConstantHeap() throws Exception {
+        Path payload = tempDir.resolve("users.json");
+        try (OutputStream out = Files.newOutputStream(payload);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("boards");
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("users");
+            for (int i = 0; i < USER_COUNT; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("username", "user" + i);
+                generator.writeStringField("email", "user" + i + "@example.com");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        JsonArrayItemReader<UserInfo> reader = new JsonArrayItemReader<>(
+                new FileSystemResource(payload), "users", UserInfo.class, objectMapper);
+        reader.open(new ExecutionContext());
+
+        long baselineHeap = 0;
+        int count = 0;
+        UserInfo last = null;
+        UserInfo user;
+        while ((user = reader.read()) != null) {
+            last = user;
+            if (++count == 100_000) {
+                baselineHeap = usedHeapAfterGc();
+            }
+        }
+        long finalHeap = usedHeapAfterGc();
+        reader.close();
+
+        assertThat(count).isEqualTo(USER_COUNT);
+        assertThat(last.username()).isEqualTo("user" + (USER_COUNT - 1));
+        assertThat(finalHeap - baselineHeap).isLessThan(32L * 1024 * 1024);
+    }
+
+    @Test
+    void resumesFromSavedPositionAndReadsSiblingArrays() throws Exception {
+        Path payload = tempDir.resolve("user-boards.json");
+        Files.writeString(payload, """
+                {"users": [{"username": "a", "email": "a@example.com"},
+                           {"username": "b", "email": "b@example.com"},
+                           {"username": "c", "email": "c@example.com"}],
+                 "boards": [{"title": "t", "content": "c", "userUsername": "a"}]}
+                """);
+
+        JsonArrayItemReader<UserInfo> reader = new JsonArrayItemReader<>(
+                new FileSystemResource(payload), "users", UserInfo.class, objectMapper);
+        reader.setName("userReader");
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        reader.open(executionContext);
+        assertThat(reader.read().username()).isEqualTo("b");
+        assertThat(reader.read().username()).isEqualTo("c");
+        assertThat(reader.read()).isNull();
+        reader.close();
+
+        JsonArrayItemReader<BoardInfo> boardReader = new JsonArrayItemReader<>(
+                new FileSystemResource(payload), "boards", BoardInfo.class, objectMapper);
+        boardReader.open(new ExecutionContext());
+        assertThat(boardReader.read().userUsername()).isEqualTo("a");
+        assertThat(boardReader.read()).isNull();
+        boardReader.close();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,103 @@
+package com.kcs.batch_sample.batch.reader;
+
+import com.kcs.batch_sample.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserKeysetReaderFactoryTests {
+
+    private static final int PAGE_SIZE = 4;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private UserKeysetReaderFactory factory;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL)");
+        // Ids with gaps, inserted out of order, over several pages of PAGE_SIZE
+        for (long id : new long[]{7, 1, 42, 3, 18, 19, 20, 5, 100, 64, 2, 33, 11, 9}) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)",
+                    id, "user" + id, "old" + id + "@example.com");
+            ids.add(id);
+        }
+        ids.sort((a, b) -> Long.compare(b, a));
+        factory = new UserKeysetReaderFactory(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void readsEveryUserOnceNewestFirstAcrossPages() throws Exception {
+        JdbcPagingItemReader<User> reader = factory.userReader("userReader", PAGE_SIZE);
+
+        assertThat(readAll(reader, new ExecutionContext())).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void resumesAfterTheLastKeyOfTheExecutionContext() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        JdbcPagingItemReader<User> reader = factory.userReader("userReader", PAGE_SIZE);
+        reader.open(executionContext);
+        List<Long> firstRun = new ArrayList<>();
+        // Stops in the middle of the second page
+        for (int i = 0; i < PAGE_SIZE + 2; i++) {
+            firstRun.add(reader.read().getId());
+        }
+        reader.update(executionContext);
+        reader.close();
+        // Deleting the last key read must not shift the next page
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", firstRun.get(firstRun.size() - 1));
+
+        List<Long> secondRun = readAll(factory.userReader("userReader", PAGE_SIZE), executionContext);
+
+        assertThat(firstRun).doesNotContainAnyElementsOf(secondRun);
+        List<Long> all = new ArrayList<>(firstRun);
+        all.addAll(secondRun);
+        assertThat(all).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void readsOnlyTheUsersOfItsRange() throws Exception {
+        JdbcPagingItemReader<User> reader = factory.userRangeReader("userRangeReader", PAGE_SIZE, 5, 42);
+
+        assertThat(readAll(reader, new ExecutionContext()))
+                .containsExactlyElementsOf(ids.stream().filter(id -> id >= 5 && id <= 42).toList());
+    }
+
+    private static List<Long> readAll(JdbcPagingItemReader<User> reader, ExecutionContext executionContext) throws Exception {
+        List<Long> read = new ArrayList<>();
+        reader.open(executionContext);
+        try {
+            User user;
+            while ((user = reader.read()) != null) {
+                read.add(user.getId());
+            }
+        } finally {
+            reader.close();
+        }
+        return read;
+    }
+}
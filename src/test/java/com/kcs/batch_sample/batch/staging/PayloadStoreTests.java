@@ -0,0 +1,71 @@
+package com.kcs.batch_sample.batch.staging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadStoreTests {
+
+    @TempDir
+    Path stagingDirectory;
+
+    private PayloadStore payloadStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        payloadStore = new PayloadStore(new ObjectMapper(), stagingDirectory.toString());
+    }
+
+    @Test
+    void stagesAWellFormedBody() throws Exception {
+        String payloadId = payloadStore.stage(body("""
+                {"users": [{"username": "a", "email": "a@example.com"}],
+                 "boards": []}
+                """));
+
+        JsonNode staged = payloadStore.read(payloadId, JsonNode.class);
+        assertThat(staged.at("/users/0/username").asText()).isEqualTo("a");
+        assertThat(staged.get("boards").isArray()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"users\": [{\"username\": \"a\", }]}",
+            "{\"users\": [{\"username\": \"a\"}",
+            "[{\"username\": \"a\"}]",
+            "{\"users\": []} {\"users\": []}",
+            ""
+    })
+    void rejectsABodyThatIsNotOneWellFormedJsonObjectAndStagesNothing(String body) throws Exception {
+        assertThatThrownBy(() -> payloadStore.stage(body(body))).isInstanceOf(InvalidPayloadException.class);
+
+        try (Stream<Path> files = Files.list(stagingDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void reportsWhereAMalformedBodyBreaks() {
+        assertThatThrownBy(() -> payloadStore.stage(body("{\"users\": [\n{\"username\" \"a\"}]}")))
+                .isInstanceOf(InvalidPayloadException.class)
+                .hasMessageStartingWith("Malformed JSON payload at line 2, column");
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
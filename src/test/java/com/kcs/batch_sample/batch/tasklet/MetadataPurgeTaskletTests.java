@@ -0,0 +1,138 @@
+package com.kcs.batch_sample.batch.tasklet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetadataPurgeTaskletTests {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(new DataSourceTransactionManager(database));
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void deletesExecutionsEndedBeforeTheCutoffAndTheInstancesLeftEmpty() throws Exception {
+        JobExecution old = finishedExecution("importJob", parameters(1), CUTOFF.minusDays(10), BatchStatus.COMPLETED);
+        JobExecution restarted = finishedExecution("importJob", parameters(2), CUTOFF.minusDays(5), BatchStatus.FAILED);
+        JobExecution recentRestart = finishedExecution("importJob", parameters(2), CUTOFF.plusDays(1), BatchStatus.COMPLETED);
+        JobExecution running = jobRepository.createJobExecution("importJob", parameters(3));
+
+        StepExecution purge = new StepExecution("purgeJobMetadataStep", new JobExecution(99L));
+        MetadataPurgeTasklet tasklet = new MetadataPurgeTasklet(jdbcTemplate, "BATCH_", CUTOFF, 1);
+        // One window per id up to the last execution ended before the cutoff
+        assertThat(execute(tasklet, purge)).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(execute(tasklet, purge)).isEqualTo(RepeatStatus.FINISHED);
+
+        assertThat(jdbcTemplate.queryForList("SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class))
+                .containsExactly(recentRestart.getId(), running.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT JOB_INSTANCE_ID FROM BATCH_JOB_INSTANCE ORDER BY JOB_INSTANCE_ID", Long.class))
+                .containsExactly(restarted.getJobInstance().getId(), running.getJobInstance().getId())
+                .doesNotContain(old.getJobInstance().getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_STEP_EXECUTION", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION_PARAMS", Integer.class)).isEqualTo(2);
+
+        assertThat(purge.getExecutionContext().getLong("purge.deleted.BATCH_JOB_EXECUTION")).isEqualTo(2);
+        assertThat(purge.getExecutionContext().getLong("purge.deleted.BATCH_STEP_EXECUTION")).isEqualTo(2);
+        assertThat(purge.getExecutionContext().getLong("purge.deleted.BATCH_JOB_INSTANCE")).isEqualTo(1);
+        assertThat(purge.getWriteCount()).isEqualTo(2 + 2 + 2 + 2 + 2 + 1);
+    }
+
+    @Test
+    void keepsExecutionsOfAWindowThatEndedAfterTheCutoff() throws Exception {
+        JobExecution first = finishedExecution("importJob", parameters(1), CUTOFF.minusDays(10), BatchStatus.COMPLETED);
+        JobExecution recent = finishedExecution("importJob", parameters(2), CUTOFF.plusDays(1), BatchStatus.COMPLETED);
+        JobExecution running = jobRepository.createJobExecution("importJob", parameters(3));
+        JobExecution last = finishedExecution("importJob", parameters(4), CUTOFF.minusDays(1), BatchStatus.COMPLETED);
+
+        StepExecution purge = new StepExecution("purgeJobMetadataStep", new JobExecution(99L));
+        MetadataPurgeTasklet tasklet = new MetadataPurgeTasklet(jdbcTemplate, "BATCH_", CUTOFF, 3);
+        assertThat(execute(tasklet, purge)).isEqualTo(RepeatStatus.CONTINUABLE);
+        assertThat(jdbcTemplate.queryForList("SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class))
+                .containsExactly(recent.getId(), running.getId(), last.getId());
+        assertThat(execute(tasklet, purge)).isEqualTo(RepeatStatus.FINISHED);
+
+        assertThat(jdbcTemplate.queryForList("SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class))
+                .containsExactly(recent.getId(), running.getId())
+                .doesNotContain(first.getId());
+        assertThat(purge.getExecutionContext().getLong(MetadataPurgeTasklet.LAST_ID_KEY)).isEqualTo(last.getId());
+    }
+
+    @Test
+    void finishesAtOnceWhenNothingEndedBeforeTheCutoff() throws Exception {
+        finishedExecution("importJob", parameters(1), CUTOFF.plusDays(1), BatchStatus.COMPLETED);
+
+        StepExecution purge = new StepExecution("purgeJobMetadataStep", new JobExecution(99L));
+        assertThat(execute(new MetadataPurgeTasklet(jdbcTemplate, "BATCH_", CUTOFF, 10), purge)).isEqualTo(RepeatStatus.FINISHED);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION", Integer.class)).isEqualTo(1);
+        assertThat(purge.getWriteCount()).isZero();
+    }
+
+    private JobExecution finishedExecution(String jobName, JobParameters jobParameters, LocalDateTime endTime,
+                                           BatchStatus status) throws Exception {
+        JobExecution jobExecution = jobRepository.createJobExecution(jobName, jobParameters);
+        jobExecution.setStartTime(endTime.minusMinutes(1));
+        StepExecution stepExecution = jobExecution.createStepExecution("step");
+        jobRepository.add(stepExecution);
+        stepExecution.setStatus(status);
+        stepExecution.setEndTime(endTime);
+        jobRepository.update(stepExecution);
+        jobExecution.setStatus(status);
+        jobExecution.setEndTime(endTime);
+        jobRepository.update(jobExecution);
+        return jobExecution;
+    }
+
+    private static JobParameters parameters(long run) {
+        return new JobParametersBuilder().addLong("run", run).toJobParameters();
+    }
+
+    private static RepeatStatus execute(MetadataPurgeTasklet tasklet, StepExecution stepExecution) {
+        StepContribution contribution = stepExecution.createStepContribution();
+        RepeatStatus status = tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+        stepExecution.apply(contribution);
+        return status;
+    }
+}
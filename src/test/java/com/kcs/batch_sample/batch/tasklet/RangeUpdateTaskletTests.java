@@ -0,0 +1,130 @@
+package com.kcs.batch_sample.batch.tasklet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeUpdateTaskletTests {
+
+    private static final String UPDATE_SQL = "UPDATE users SET email = CONCAT('user', user_id, '@example.com'), "
+            + "updates = updates + 1 WHERE user_id BETWEEN ? AND ?";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int stopAfterCalls = Integer.MAX_VALUE;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, email VARCHAR(255) NOT NULL, "
+                + "updates INT DEFAULT 0 NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(database);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(transactionManager);
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedRangeAndUpdatesEveryRowOnce() throws Exception {
+        // Keys 3, 6, ..., 60 with gaps, so ranges of 10 keys hold 3 or 4 rows
+        for (long id = 3; id <= 60; id += 3) {
+            jdbcTemplate.update("INSERT INTO users (user_id, email) VALUES (?, 'old')", id);
+        }
+        Job job = job(10);
+        stopAfterCalls = 1;
+
+        JobExecution stopped = launch(job);
+
+        assertThat(stopped.getStatus()).isEqualTo(BatchStatus.STOPPED);
+        StepExecution firstRange = stopped.getStepExecutions().iterator().next();
+        assertThat(firstRange.getExecutionContext().getLong(RangeUpdateTasklet.LAST_ID_KEY)).isEqualTo(12);
+        assertThat(firstRange.getExecutionContext().getLong(RangeUpdateTasklet.MAX_ID_KEY)).isEqualTo(60);
+        assertThat(firstRange.getWriteCount()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM users WHERE updates = 1 ORDER BY user_id", Long.class))
+                .containsExactly(3L, 6L, 9L, 12L);
+
+        // Added after the bounds were captured, so the restart leaves it alone
+        jdbcTemplate.update("INSERT INTO users (user_id, email) VALUES (63, 'old')");
+        stopAfterCalls = Integer.MAX_VALUE;
+        JobExecution restarted = launch(job);
+
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(stopped.getJobInstance().getInstanceId());
+        assertThat(restarted.getStepExecutions().iterator().next().getWriteCount()).isEqualTo(16);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE updates = 1 "
+                + "AND email = CONCAT('user', user_id, '@example.com')", Integer.class)).isEqualTo(20);
+        assertThat(jdbcTemplate.queryForObject("SELECT updates FROM users WHERE user_id = 63", Integer.class)).isZero();
+        // The first range plus the five left from (12, 60]
+        assertThat(calls.get()).isEqualTo(1 + 5);
+    }
+
+    @Test
+    void finishesAtOnceOnAnEmptyTable() throws Exception {
+        JobExecution jobExecution = launch(job(10));
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jobExecution.getStepExecutions().iterator().next().getExecutionContext()
+                .containsKey(RangeUpdateTasklet.MAX_ID_KEY)).isFalse();
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    // Asks the step to stop once the tasklet ran stopAfterCalls times, as a JobOperator stop would
+    private Job job(long rangeSize) {
+        RangeUpdateTasklet tasklet = new RangeUpdateTasklet(jdbcTemplate, "users", "user_id", UPDATE_SQL, rangeSize);
+        return new JobBuilder("updateUserEmailJob", jobRepository)
+                .start(new StepBuilder("updateUserEmailStep", jobRepository)
+                        .tasklet((contribution, chunkContext) -> {
+                            RepeatStatus status = tasklet.execute(contribution, chunkContext);
+                            if (calls.incrementAndGet() >= stopAfterCalls) {
+                                chunkContext.getStepContext().getStepExecution().setTerminateOnly();
+                            }
+                            return status;
+                        }, transactionManager)
+                        .build())
+                .build();
+    }
+
+    private JobExecution launch(Job job) throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+        JobParameters jobParameters = new JobParametersBuilder().addLong("run", 1L).toJobParameters();
+        return jobLauncher.run(job, jobParameters);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kcs.batch_sample.batch.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.dto.UserBoardProcessingDto;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadValidatorTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @TempDir
+    Path tempDir;
+
+    private PayloadStore payloadStore;
+    private PayloadValidator payloadValidator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+        payloadStore = new PayloadStore(objectMapper, tempDir.toString());
+        // A small block size so the users array spans several blocks
+        payloadValidator = new PayloadValidator(objectMapper, validatorFactory.getValidator(), payloadStore, executor, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        validatorFactory.close();
+    }
+
+    @Test
+    void keepsCleanRecordsInOrderAndReportsRejects() throws Exception {
+        String payloadId = stage("""
+                {"requestedBy": {"name": "ops"},
+                 "users": [{"username": "a", "email": "a@example.com"},
+                           {"username": "b", "email": "invalid_email"},
+                           {"username": "c", "email": "c@example.com"},
+                           {"username": "", "email": "d@example.com"},
+                           {"username": "e", "email": "e@example.com"},
+                           {"username": "f", "email": "f@exa mple"},
+                           {"username": "g", "email": "g@example.com"}],
+                 "boards": [{"title": "t", "content": "c", "userUsername": "a"},
+                            {"title": "a title longer than twenty", "content": "c", "userUsername": "a"}]}
+                """);
+
+        PayloadValidationResult result = payloadValidator.validate(payloadId);
+
+        assertThat(result.total()).isEqualTo(9);
+        assertThat(result.rejected()).isEqualTo(4);
+
+        JsonNode clean = objectMapper.readTree(payloadStore.resource(result.validatedPayloadId()).getFile());
+        assertThat(clean.get("users")).extracting(user -> user.get("username").asText()).containsExactly("a", "c", "e", "g");
+        assertThat(clean.get("boards")).extracting(board -> board.get("title").asText()).containsExactly("t");
+        assertThat(clean.path("requestedBy").path("name").asText()).isEqualTo("ops");
+
+        List<JsonNode> rejects = Files.readAllLines(result.rejectReport()).stream()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertThat(rejects).extracting(reject -> reject.get("array").asText() + "[" + reject.get("index").asInt() + "]")
+                .containsExactly("users[1]", "users[3]", "users[5]", "boards[1]");
+        assertThat(rejects.get(0).get("errors").get(0).asText()).startsWith("email:");
+        assertThat(rejects.get(2).get("errors").get(0).asText()).startsWith("email:");
+        assertThat(rejects.get(3).get("errors").get(0).asText()).startsWith("title:");
+        assertThat(rejects.get(1).get("record").get("email").asText()).isEqualTo("d@example.com");
+    }
+
+    @Test
+    void writesNoReportWhenEveryRecordPasses() throws Exception {
+        String payloadId = stage("""
+                {"users": [{"username": "a", "email": "a@example.com"}]}
+                """);
+
+        PayloadValidationResult result = payloadValidator.validate(payloadId);
+
+        assertThat(result.rejected()).isZero();
+        assertThat(result.rejectReport()).isNull();
+        assertThat(Files.exists(payloadStore.rejectReport(payloadId))).isFalse();
+        assertThat(payloadStore.read(result.validatedPayloadId(), UserBoardProcessingDto.class).users()).hasSize(1);
+    }
+
+    private String stage(String json) throws Exception {
+        return payloadStore.stage(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
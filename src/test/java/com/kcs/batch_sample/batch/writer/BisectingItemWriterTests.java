@@ -0,0 +1,209 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BisectingItemWriterTests {
+
+    private static final int MAX_NAME_LENGTH = 10;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private final AtomicInteger delegateWrites = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(" + MAX_NAME_LENGTH + ") NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void isolatesFailingItemsAndCommitsTheRest() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            names.add(i == 10 || i == 50 ? "name-too-long-" + i : "n" + i);
+        }
+        Chunk<String> chunk = new Chunk<>(names);
+
+        writeInTransaction(writer(Integer.MAX_VALUE), chunk);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isEqualTo(62);
+        assertThat(chunk.size()).isEqualTo(62);
+        assertThat(chunk.getSkips()).extracting(skip -> skip.getItem())
+                .containsExactly("name-too-long-10", "name-too-long-50");
+        // 1 full attempt + 2 bisections of depth log2(64) = 6, far below one write per item
+        assertThat(delegateWrites.get()).isLessThanOrEqualTo(1 + 2 * 2 * 6);
+    }
+
+    @Test
+    void writesCleanChunkInOneCall() {
+        Chunk<String> chunk = new Chunk<>(List.of("a", "b", "c"));
+
+        writeInTransaction(writer(Integer.MAX_VALUE), chunk);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isEqualTo(3);
+        assertThat(chunk.getSkips()).isEmpty();
+        assertThat(delegateWrites.get()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesNonSkippableFailures() {
+        BisectingItemWriter<String> writer = new BisectingItemWriter<>(items -> {
+            throw new IllegalStateException("connection lost");
+        }, database, skipPolicy(Integer.MAX_VALUE));
+
+        assertThatThrownBy(() -> writeInTransaction(writer, new Chunk<>(List.of("a", "b"))))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void countsIsolatedItemsAsWriteSkipsOnceTheChunkCommits() {
+        StepExecution stepExecution = stepExecution();
+        stepExecution.setProcessSkipCount(1);
+        BisectingItemWriter<String> writer = writer(3);
+
+        inStep(stepExecution, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            write(writer, new Chunk<>(List.of("a", "name-too-long-1")));
+            assertThat(stepExecution.getWriteSkipCount()).isZero();
+        }));
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+
+        inStep(stepExecution, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            write(writer, new Chunk<>(List.of("b", "name-too-long-2")));
+            status.setRollbackOnly();
+        }));
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failsTheChunkOnceTheSkipLimitIsReached() {
+        StepExecution stepExecution = stepExecution();
+        stepExecution.setProcessSkipCount(1);
+        BisectingItemWriter<String> writer = writer(2);
+
+        assertThatThrownBy(() -> inStep(stepExecution, () -> writeInTransaction(writer,
+                new Chunk<>(List.of("a", "name-too-long-1", "b", "name-too-long-2")))))
+                .hasCauseInstanceOf(SkipLimitExceededException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isZero();
+        assertThat(stepExecution.getWriteSkipCount()).isZero();
+    }
+
+    @Test
+    void allocatesEachItemsIdOnceAcrossBisections() {
+        AtomicLong allocatedIds = new AtomicLong();
+        PooledIdAllocator idAllocator = mock(PooledIdAllocator.class);
+        when(idAllocator.nextId(any())).thenAnswer(invocation -> allocatedIds.incrementAndGet());
+        JdbcBatchInsertItemWriter<Item> insertWriter = new JdbcBatchInsertItemWriter<>(jdbcTemplate, idAllocator,
+                "INSERT INTO item (id, name) VALUES (?, ?)",
+                (item, ps) -> {
+                    ps.setLong(1, item.id);
+                    ps.setString(2, item.name);
+                },
+                item -> item.id,
+                (item, id) -> item.id = id);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            items.add(new Item(i == 5 ? "name-too-long-5" : "n" + i));
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                write(new BisectingItemWriter<>(insertWriter, database, skipPolicy(Integer.MAX_VALUE)), new Chunk<>(items)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class)).isEqualTo(15);
+        assertThat(allocatedIds.get()).isEqualTo(16);
+    }
+
+    private static final class Item {
+        private Long id;
+        private final String name;
+
+        private Item(String name) {
+            this.name = name;
+        }
+    }
+
+    private BisectingItemWriter<String> writer(int skipLimit) {
+        ItemWriter<String> delegate = items -> {
+            delegateWrites.incrementAndGet();
+            List<? extends String> list = items.getItems();
+            jdbcTemplate.batchUpdate("INSERT INTO item (id, name) VALUES (?, ?)", list, list.size(),
+                    (ps, name) -> {
+                        ps.setInt(1, name.hashCode());
+                        ps.setString(2, name);
+                    });
+        };
+        return new BisectingItemWriter<>(delegate, database, skipPolicy(skipLimit));
+    }
+
+    private static SkipPolicy skipPolicy(int skipLimit) {
+        return new LimitCheckingItemSkipPolicy(skipLimit, Map.of(DataIntegrityViolationException.class, true));
+    }
+
+    private static StepExecution stepExecution() {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importJob"), 1L, new JobParameters());
+        return new StepExecution("importStep", jobExecution, 1L);
+    }
+
+    private static void inStep(StepExecution stepExecution, Runnable work) {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            work.run();
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    private void writeInTransaction(BisectingItemWriter<String> writer, Chunk<String> chunk) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(writer, chunk));
+    }
+
+    private static <T> void write(BisectingItemWriter<T> writer, Chunk<T> chunk) {
+        try {
+            writer.write(chunk);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.Board;
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoardImportWriterTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private UserJdbcBatchWriter userWriter;
+    private BoardImportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, CONSTRAINT uk_users_username UNIQUE (username))");
+        jdbcTemplate.execute("CREATE TABLE board (board_id BIGINT PRIMARY KEY, title VARCHAR(20) NOT NULL, "
+                + "content VARCHAR(255) NOT NULL, user_id BIGINT NOT NULL REFERENCES users (user_id))");
+
+        AtomicLong allocatedIds = new AtomicLong(100);
+        PooledIdAllocator idAllocator = mock(PooledIdAllocator.class);
+        when(idAllocator.nextId(any())).thenAnswer(invocation -> allocatedIds.incrementAndGet());
+        UserIdResolver userIdResolver = new UserIdResolver(new NamedParameterJdbcTemplate(database), new SimpleMeterRegistry(), 10);
+        userWriter = new UserJdbcBatchWriter(jdbcTemplate, idAllocator, userIdResolver);
+        writer = new BoardImportWriter(userIdResolver, new BoardJdbcBatchWriter(jdbcTemplate, idAllocator));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void resolvesUsersOfTheSameImportAndExistingOnes() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (1, 'existing', 'existing@example.com')");
+        userWriter.write(new Chunk<>(User.builder().username("imported").email("imported@example.com").build()));
+
+        writer.write(new Chunk<>(board("first", "existing"), board("second", "imported"), board("third", "existing")));
+
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT(b.title, ':', u.username) FROM board b "
+                + "JOIN users u ON u.user_id = b.user_id ORDER BY b.board_id", String.class))
+                .containsExactly("first:existing", "second:imported", "third:existing");
+    }
+
+    @Test
+    void failsAChunkReferencingAnUnknownUserBeforeInsertingAnything() {
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (1, 'existing', 'existing@example.com')");
+
+        assertThatThrownBy(() -> writer.write(new Chunk<>(board("first", "existing"), board("orphan", "missing"))))
+                .isInstanceOf(UnknownUserException.class)
+                .hasMessageContaining("orphan");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM board", Integer.class)).isZero();
+    }
+
+    private static Board board(String title, String username) {
+        return Board.builder()
+                .title(title)
+                .content(title + " content")
+                .user(User.builder().username(username).build())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.batch.compensation.ImportJournal;
+import com.kcs.batch_sample.batch.compensation.ImportJournal.JournaledTable;
+import com.kcs.batch_sample.domain.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class JournalingItemWriterTests {
+
+    private static final String PAYLOAD_ID = "5f0c6d3e-8a4b-4c2d-9e1f-0a1b2c3d4e5f";
+    private static final JournaledTable USERS = new JournaledTable("users", "user_id");
+
+    private final ImportJournal importJournal = mock(ImportJournal.class);
+
+    @Test
+    void journalsTheIdsOfTheItemsTheDelegateWrote() throws Exception {
+        JournalingItemWriter<User> writer = new JournalingItemWriter<>(chunk -> {
+            long id = 1;
+            for (User user : chunk) {
+                // The delegate leaves the second item unwritten
+                if (!user.getUsername().equals("b")) {
+                    user.setId(id++);
+                }
+            }
+        }, importJournal, PAYLOAD_ID, USERS, User::getId);
+
+        writer.write(new Chunk<>(user("a"), user("b"), user("c")));
+
+        verify(importJournal).append(PAYLOAD_ID, USERS, List.of(1L, 2L));
+    }
+
+    @Test
+    void journalsNothingWhenTheDelegateFails() throws Exception {
+        JournalingItemWriter<User> writer = new JournalingItemWriter<>(chunk -> {
+            throw new IllegalStateException("insert failed");
+        }, importJournal, PAYLOAD_ID, USERS, User::getId);
+
+        assertThatThrownBy(() -> writer.write(new Chunk<>(user("a"))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(importJournal, never()).append(anyString(), any(), anyList());
+    }
+
+    private static User user(String username) {
+        return User.builder().username(username).email(username + "@example.com").build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.kcs.batch_sample.batch.writer;
+
+import com.kcs.batch_sample.domain.User;
+import com.kcs.batch_sample.repository.PooledIdAllocator;
+import com.kcs.batch_sample.repository.UserIdResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserUpsertWriterTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private UserUpsertWriter writer;
+    private final AtomicLong allocatedIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, CONSTRAINT uk_users_username UNIQUE (username))");
+
+        PooledIdAllocator idAllocator = mock(PooledIdAllocator.class);
+        when(idAllocator.nextId(any())).thenAnswer(invocation -> allocatedIds.incrementAndGet());
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(database);
+        writer = new UserUpsertWriter(jdbcTemplate, namedParameterJdbcTemplate, idAllocator,
+                new UserIdResolver(namedParameterJdbcTemplate, new SimpleMeterRegistry(), 10), database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void rerunningTheSameImportWritesNothing() throws Exception {
+        writer.write(chunk("a", "a@example.com", "b", "b@example.com"));
+        long idsAfterFirstRun = allocatedIds.get();
+
+        writer.write(chunk("a", "a@example.com", "b", "b@example.com"));
+
+        assertThat(allocatedIds.get()).isEqualTo(idsAfterFirstRun);
+        assertThat(jdbcTemplate.queryForList("SELECT username FROM users ORDER BY username", String.class))
+                .containsExactly("a", "b");
+    }
+
+    @Test
+    void updatesTheEmailOfAnExistingUserAndKeepsItsId() throws Exception {
+        writer.write(chunk("a", "a@example.com"));
+        Long id = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE username = 'a'", Long.class);
+
+        writer.write(chunk("a", "a@new.example.com", "c", "c@example.com"));
+
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT(user_id, ':', username, ':', email) FROM users ORDER BY username", String.class))
+                .containsExactly(id + ":a:a@new.example.com", allocatedIds.get() + ":c:c@example.com");
+    }
+
+    private static Chunk<User> chunk(String... usernamesAndEmails) {
+        Chunk<User> chunk = new Chunk<>();
+        for (int i = 0; i < usernamesAndEmails.length; i += 2) {
+            chunk.add(User.builder().username(usernamesAndEmails[i]).email(usernamesAndEmails[i + 1]).build());
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,84 @@
+package com.kcs.batch_sample.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.service.JobLaunchService;
+import com.kcs.batch_sample.service.MultiEntityProcessingService;
+import com.kcs.batch_sample.service.UserProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GenericJobControllerTests {
+
+    @TempDir
+    Path stagingDirectory;
+
+    private final JobLaunchService jobLaunchService = mock(JobLaunchService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PayloadStore payloadStore = new PayloadStore(new ObjectMapper(), stagingDirectory.toString());
+        UserProcessingService userProcessingService = new UserProcessingService(jobLaunchService, payloadStore,
+                mock(Job.class), mock(Job.class));
+        MultiEntityProcessingService multiEntityProcessingService = new MultiEntityProcessingService(jobLaunchService,
+                payloadStore, mock(Job.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(new GenericJobController(userProcessingService, multiEntityProcessingService))
+                .setControllerAdvice(new InvalidPayloadExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void answersAMalformedBodyWithBadRequestWithoutLaunchingAJob() throws Exception {
+        mockMvc.perform(post("/api/v1/generic/run-job1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\": [{\"username\": \"a\", \"email\": \"a@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Malformed JSON payload")));
+        mockMvc.perform(post("/api/v1/generic/process-user-and-boards?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(jobLaunchService);
+        try (Stream<Path> files = Files.list(stagingDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void launchesAJobForAWellFormedBody() throws Exception {
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        when(jobLaunchService.launch(any(), any(), anyBoolean())).thenReturn(jobExecution);
+
+        mockMvc.perform(post("/api/v1/generic/run-job1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\": [{\"username\": \"a\", \"email\": \"a@example.com\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Chunk processing completed with status: COMPLETED"));
+    }
+}
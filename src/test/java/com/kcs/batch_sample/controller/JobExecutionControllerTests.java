@@ -0,0 +1,77 @@
+package com.kcs.batch_sample.controller;
+
+import com.kcs.batch_sample.service.JobExecutionService;
+import com.kcs.batch_sample.service.JobLaunchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JobExecutionControllerTests {
+
+    private final JobLaunchService jobLaunchService = mock(JobLaunchService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new JobExecutionController(mock(JobExecutionService.class), jobLaunchService))
+                .build();
+    }
+
+    @Test
+    void restartsAFailedExecution() throws Exception {
+        when(jobLaunchService.restart(7L, false)).thenReturn(Optional.of(execution(8L, BatchStatus.COMPLETED)));
+        when(jobLaunchService.restart(7L, true)).thenReturn(Optional.of(execution(9L, BatchStatus.STARTING)));
+
+        mockMvc.perform(post("/api/v1/jobs/7/restart"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Job restarted with status: COMPLETED"));
+        mockMvc.perform(post("/api/v1/jobs/7/restart?async=true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/jobs/9"))
+                .andExpect(jsonPath("$.executionId").value(9));
+    }
+
+    @Test
+    void answersNotFoundForAnUnknownExecution() throws Exception {
+        when(jobLaunchService.restart(42L, false)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/jobs/42/restart"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void answersConflictForAnExecutionThatCannotBeRestarted() throws Exception {
+        when(jobLaunchService.restart(7L, false))
+                .thenThrow(new JobRestartException("Execution 7 was already restarted as execution 8"));
+        when(jobLaunchService.restart(8L, false))
+                .thenThrow(new JobRestartException("Execution 8 is COMPLETED, only failed or stopped executions can be restarted"));
+
+        mockMvc.perform(post("/api/v1/jobs/7/restart"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Execution 7 was already restarted as execution 8"));
+        mockMvc.perform(post("/api/v1/jobs/8/restart"))
+                .andExpect(status().isConflict());
+    }
+
+    private static JobExecution execution(long id, BatchStatus status) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importJob"), id, new JobParameters());
+        jobExecution.setStatus(status);
+        return jobExecution;
+    }
+}
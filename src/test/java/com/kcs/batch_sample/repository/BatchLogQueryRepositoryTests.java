@@ -0,0 +1,86 @@
+package com.kcs.batch_sample.repository;
+
+import com.kcs.batch_sample.dto.BatchLogDto;
+import com.kcs.batch_sample.repository.BatchLogQueryRepository.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchLogQueryRepositoryTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private BatchLogQueryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE batch_log (id BIGINT PRIMARY KEY, job_name VARCHAR(255), step_name VARCHAR(255), "
+                + "error_message VARCHAR(255), item_data TEXT, created_at TIMESTAMP)");
+        repository = new BatchLogQueryRepository(new NamedParameterJdbcTemplate(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void pagesThroughRowsSharingATimestampWithoutGapsOrRepeats() {
+        // Ids 1..10, two rows per minute, alternating steps
+        for (int i = 1; i <= 10; i++) {
+            insert(i, "importJob", i % 2 == 0 ? "a" : "b", START.plusMinutes((i + 1) / 2));
+        }
+        insert(11, "otherJob", "a", START.plusMinutes(30));
+
+        List<Long> ids = new ArrayList<>();
+        Position after = null;
+        List<BatchLogDto> page;
+        do {
+            page = repository.find("importJob", null, null, null, after, 3);
+            page.forEach(row -> ids.add(row.id()));
+            if (!page.isEmpty()) {
+                BatchLogDto last = page.get(page.size() - 1);
+                after = new Position(last.createdAt(), last.id());
+            }
+        } while (page.size() == 3);
+
+        assertThat(ids).containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void filtersByStepAndTimeRange() {
+        for (int i = 1; i <= 10; i++) {
+            insert(i, "importJob", i % 2 == 0 ? "a" : "b", START.plusMinutes(i));
+        }
+
+        assertThat(repository.find("importJob", "a", START.plusMinutes(4), START.plusMinutes(8), null, 100))
+                .extracting(BatchLogDto::id)
+                .containsExactly(6L, 4L);
+        assertThat(repository.find(null, null, START.plusMinutes(9), null, null, 100))
+                .extracting(BatchLogDto::id)
+                .containsExactly(10L, 9L);
+    }
+
+    private void insert(long id, String jobName, String stepName, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO batch_log (id, job_name, step_name, error_message, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, jobName, stepName, "Item Skipped", createdAt);
+    }
+}
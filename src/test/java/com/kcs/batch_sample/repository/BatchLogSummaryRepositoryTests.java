@@ -0,0 +1,81 @@
+package com.kcs.batch_sample.repository;
+
+import com.kcs.batch_sample.domain.BatchLog;
+import com.kcs.batch_sample.dto.BatchLogSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BatchLogSummaryRepositoryTests {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2026, 3, 1, 10, 0);
+    private static final LocalDateTime DAY_TWO = DAY_ONE.plusDays(1);
+
+    private EmbeddedDatabase database;
+    private BatchLogSummaryRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE batch_log_summary (job_name VARCHAR(100) NOT NULL, step_name VARCHAR(100) NOT NULL, "
+                + "log_date DATE NOT NULL, message VARCHAR(100) NOT NULL, entry_count BIGINT NOT NULL, "
+                + "last_logged_at TIMESTAMP NOT NULL, PRIMARY KEY (job_name, log_date, message, step_name))");
+        repository = new BatchLogSummaryRepository(jdbcTemplate, database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void countsEachWrittenBatchIntoItsJobStepDayAndMessage() {
+        repository.increment(List.of(
+                log("importJob", "importStep", "Item Skipped", DAY_ONE),
+                log("importJob", "importStep", "Item Skipped", DAY_ONE.plusHours(2)),
+                log("importJob", "importStep", "Chunk Error", DAY_ONE),
+                log("importJob", "importStep", "Item Skipped", DAY_TWO)));
+        repository.increment(List.of(
+                log("importJob", "importStep", "Item Skipped", DAY_ONE.plusHours(1)),
+                log("otherJob", null, "Step Finished", DAY_ONE)));
+
+        assertThat(repository.find("importJob", DAY_ONE.toLocalDate(), DAY_TWO.toLocalDate())).containsExactly(
+                new BatchLogSummaryDto("importJob", "importStep", DAY_TWO.toLocalDate(), "Item Skipped", 1, DAY_TWO),
+                new BatchLogSummaryDto("importJob", "importStep", DAY_ONE.toLocalDate(), "Chunk Error", 1, DAY_ONE),
+                new BatchLogSummaryDto("importJob", "importStep", DAY_ONE.toLocalDate(), "Item Skipped", 3, DAY_ONE.plusHours(2)));
+        assertThat(repository.find(null, DAY_ONE.toLocalDate(), DAY_ONE.toLocalDate()))
+                .extracting(BatchLogSummaryDto::jobName, BatchLogSummaryDto::stepName, BatchLogSummaryDto::count)
+                .contains(tuple("otherJob", "", 1L))
+                .hasSize(3);
+    }
+
+    @Test
+    void truncatesLongKeys() {
+        String longMessage = "x".repeat(300);
+        repository.increment(List.of(log("importJob", "importStep", longMessage, DAY_ONE)));
+
+        assertThat(repository.find("importJob", LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1)))
+                .singleElement()
+                .extracting(BatchLogSummaryDto::message)
+                .isEqualTo("x".repeat(100));
+    }
+
+    private static BatchLog log(String jobName, String stepName, String message, LocalDateTime createdAt) {
+        return BatchLog.builder().jobName(jobName).stepName(stepName).errorMessage(message).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.kcs.batch_sample.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdResolverTests {
+
+    private static final int MAX_SIZE = 100;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private UserIdResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL)");
+        for (int i = 1; i <= 2500; i++) {
+            insertUser(i, "user" + i);
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new UserIdResolver(new NamedParameterJdbcTemplate(database), meterRegistry, MAX_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void loadsMissesOfACallInBatchedInQueriesAndServesRepeatsFromTheCache() {
+        List<String> usernames = List.of("user1", "user2", "user2", "unknown");
+
+        Map<String, Long> first = resolver.resolve(usernames);
+        Map<String, Long> second = resolver.resolve(List.of("user1", "user2"));
+
+        assertThat(first).containsOnly(Map.entry("user1", 1L), Map.entry("user2", 2L));
+        assertThat(second).isEqualTo(Map.of("user1", 1L, "user2", 2L));
+        assertThat(loads()).isEqualTo(1);
+        assertThat(meterRegistry.get("batch.user.resolver.requests").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("batch.user.resolver.requests").tag("result", "miss").functionCounter().count()).isEqualTo(3);
+        assertThat(resolver.hitRatio()).isEqualTo(0.4);
+    }
+
+    @Test
+    void staysWithinItsSizeEvictingTheLeastRecentlyUsed() {
+        for (int i = 1; i <= MAX_SIZE; i++) {
+            resolver.resolve(List.of("user" + i));
+        }
+        resolver.resolve(List.of("user1"));
+        resolver.resolve(List.of("user" + (MAX_SIZE + 1)));
+        assertThat(resolver.size()).isEqualTo(MAX_SIZE);
+        assertThat(loads()).isEqualTo(MAX_SIZE + 1);
+
+        resolver.resolve(List.of("user1"));
+        assertThat(loads()).isEqualTo(MAX_SIZE + 1);
+        resolver.resolve(List.of("user2"));
+        assertThat(loads()).isEqualTo(MAX_SIZE + 2);
+    }
+
+    @Test
+    void loadsLargeMissSetsInBoundedInLists() {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            usernames.add("user" + i);
+        }
+
+        assertThat(resolver.resolve(usernames)).hasSize(2500);
+        assertThat(resolver.size()).isEqualTo(MAX_SIZE);
+        assertThat(loads()).isEqualTo(1);
+    }
+
+    @Test
+    void picksUpANewerUserOnceInvalidated() {
+        assertThat(resolver.resolve(List.of("user7"))).containsEntry("user7", 7L);
+        insertUser(9000, "user7");
+
+        assertThat(resolver.resolve(List.of("user7"))).containsEntry("user7", 7L);
+        resolver.invalidate(List.of("user7"));
+        assertThat(resolver.resolve(List.of("user7"))).containsEntry("user7", 9000L);
+    }
+
+    private long loads() {
+        return meterRegistry.get("batch.user.resolver.load").timer().count();
+    }
+
+    private void insertUser(long id, String username) {
+        jdbcTemplate.update("INSERT INTO users (user_id, username, email) VALUES (?, ?, ?)", id, username, username + "@example.com");
+    }
+}
@@ -0,0 +1,138 @@
+package com.kcs.batch_sample.service;
+
+import com.kcs.batch_sample.config.JobAdmissionProperties;
+import com.kcs.batch_sample.config.JobAdmissionProperties.JobLimit;
+import com.kcs.batch_sample.service.JobAdmissionQueue.Ticket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobAdmissionQueueTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void admitsWaitingLaunchesByPriorityAsSlotsFree() throws Exception {
+        JobAdmissionQueue queue = queue(1, 10, Map.of("urgentJob", new JobLimit(null, 5)));
+        Ticket running = queue.enqueue("importJob");
+        Ticket first = queue.enqueue("importJob");
+        Ticket second = queue.enqueue("importJob");
+        Ticket urgent = queue.enqueue("urgentJob");
+
+        assertThat(List.of(running, first, second, urgent)).extracting(Ticket::isAdmitted)
+                .containsExactly(true, false, false, false);
+        assertThat(gauge("batch.admission.queue.size")).isEqualTo(3);
+
+        queue.release(running);
+        assertThat(List.of(first, second, urgent)).extracting(Ticket::isAdmitted).containsExactly(false, false, true);
+        queue.release(urgent);
+        assertThat(List.of(first, second)).extracting(Ticket::isAdmitted).containsExactly(true, false);
+        assertThat(meterRegistry.get("batch.admission.wait").tag("job", "importJob").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void aJobAtItsOwnLimitDoesNotHoldBackOtherJobs() throws Exception {
+        JobAdmissionQueue queue = queue(3, 10, Map.of("importJob", new JobLimit(1, null)));
+        Ticket running = queue.enqueue("importJob");
+        Ticket queued = queue.enqueue("importJob");
+        Ticket other = queue.enqueue("emailJob");
+
+        assertThat(List.of(running, queued, other)).extracting(Ticket::isAdmitted).containsExactly(true, false, true);
+        assertThat(gauge("batch.admission.running")).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsLaunchesOnceTheQueueIsFull() throws Exception {
+        JobAdmissionQueue queue = queue(1, 1, Map.of());
+        queue.enqueue("importJob");
+        queue.enqueue("importJob");
+
+        assertThatThrownBy(() -> queue.enqueue("importJob"))
+                .isInstanceOf(JobAdmissionException.class)
+                .hasMessageContaining("queue is full")
+                .extracting(e -> ((JobAdmissionException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(30));
+        assertThat(meterRegistry.get("batch.admission.rejected").tag("reason", "queue_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void runsAQueuedTaskOnceAdmittedAndFreesItsSlotAfterwards() throws Exception {
+        JobAdmissionQueue queue = queue(1, 10, Map.of());
+        Ticket running = queue.enqueue("importJob");
+        Ticket queued = queue.enqueue("importJob");
+        CountDownLatch ran = new CountDownLatch(1);
+        queue.execute(queued, ran::countDown, e -> {
+        });
+
+        assertThat(ran.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        queue.release(running);
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Ticket next = queue.enqueue("importJob");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!next.isAdmitted() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(next.isAdmitted()).isTrue();
+    }
+
+    @Test
+    void aSynchronousLaunchGivesUpAfterItsMaximumWait() throws Exception {
+        JobAdmissionQueue queue = queue(1, 10, Map.of());
+        queue.enqueue("importJob");
+        Ticket waiting = queue.enqueue("importJob");
+
+        assertThatThrownBy(() -> queue.awaitAdmission(waiting)).isInstanceOf(JobAdmissionException.class);
+        assertThat(gauge("batch.admission.queue.size")).isZero();
+        assertThat(meterRegistry.get("batch.admission.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aRejectedTaskFreesItsSlotAndIsReportedToItsLauncher() throws Exception {
+        JobAdmissionProperties properties = new JobAdmissionProperties(1, 2, 10, 50, 30, Map.of());
+        JobAdmissionQueue queue = new JobAdmissionQueue(properties, task -> {
+            throw new TaskRejectedException("Executor shut down");
+        }, meterRegistry);
+        Ticket admitted = queue.enqueue("importJob");
+        Ticket queued = queue.enqueue("importJob");
+        List<TaskRejectedException> reported = new ArrayList<>();
+        queue.execute(queued, () -> {
+        }, reported::add);
+
+        // Admitted when handed over: thrown to the launcher, which fails the execution itself
+        assertThatThrownBy(() -> queue.execute(admitted, () -> {
+        }, reported::add)).isInstanceOf(TaskRejectedException.class);
+        // Admitted later, once the slot was freed: reported through the callback
+        assertThat(reported).hasSize(1);
+        assertThat(gauge("batch.admission.running")).isZero();
+        assertThat(gauge("batch.admission.queue.size")).isZero();
+    }
+
+    private JobAdmissionQueue queue(int maxRunning, int queueCapacity, Map<String, JobLimit> jobs) {
+        JobAdmissionProperties properties = new JobAdmissionProperties(maxRunning, 2, queueCapacity, 50, 30, jobs);
+        return new JobAdmissionQueue(properties, executor::execute, meterRegistry);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,221 @@
+package com.kcs.batch_sample.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcs.batch_sample.batch.staging.PayloadStore;
+import com.kcs.batch_sample.config.JobAdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobLaunchServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private DataSourceTransactionManager transactionManager;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+    private PayloadStore payloadStore;
+    private Job job;
+    private volatile boolean failing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        transactionManager = new DataSourceTransactionManager(database);
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(database);
+        explorerFactory.setTransactionManager(transactionManager);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+        payloadStore = new PayloadStore(new ObjectMapper(), tempDir.toString());
+
+        job = new JobBuilder("importJob", jobRepository)
+                .start(new StepBuilder("importStep", jobRepository)
+                        .tasklet((contribution, chunkContext) -> {
+                            if (failing) {
+                                throw new IllegalStateException("Import failed");
+                            }
+                            return RepeatStatus.FINISHED;
+                        }, transactionManager)
+                        .build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void failsAQueuedExecutionTheExecutorRejectsOnceAdmitted() throws Exception {
+        JobAdmissionQueue admissionQueue = new JobAdmissionQueue(new JobAdmissionProperties(1, 1, 10, 50, 30, Map.of()),
+                task -> {
+                    throw new TaskRejectedException("Executor shut down");
+                }, new SimpleMeterRegistry());
+        JobLaunchService service = service(admissionQueue);
+        JobAdmissionQueue.Ticket running = admissionQueue.enqueue("importJob");
+
+        JobExecution queued = service.launch(job, new JobParametersBuilder().addLong("run", 1L).toJobParameters(), true);
+        assertThat(jobExplorer.getJobExecution(queued.getId()).getStatus()).isEqualTo(BatchStatus.STARTING);
+
+        admissionQueue.release(running);
+        JobExecution rejected = jobExplorer.getJobExecution(queued.getId());
+        assertThat(rejected.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(rejected.getExitStatus().getExitDescription()).contains("Executor shut down");
+        assertThat(rejected.getEndTime()).isNotNull();
+    }
+
+    @Test
+    void deletesThePayloadOfALaunchTurnedAwayByAFullQueue() throws Exception {
+        JobAdmissionQueue admissionQueue = admissionQueue();
+        JobLaunchService service = service(admissionQueue);
+        List<JobAdmissionQueue.Ticket> full = fill(admissionQueue);
+        String payloadId = payloadStore.stage(Map.of("users", List.of()));
+
+        assertThatThrownBy(() -> service.launch(job, payload(payloadId), true))
+                .isInstanceOf(JobAdmissionException.class);
+
+        assertThat(payloadStore.resource(payloadId).exists()).isFalse();
+        assertThat(jobExplorer.getJobInstances("importJob", 0, 1)).isEmpty();
+        full.forEach(admissionQueue::release);
+    }
+
+    @Test
+    void deletesThePayloadOfASynchronousLaunchThatWaitedTooLong() throws Exception {
+        JobAdmissionQueue admissionQueue = admissionQueue();
+        JobLaunchService service = service(admissionQueue);
+        JobAdmissionQueue.Ticket running = admissionQueue.enqueue("importJob");
+        String payloadId = payloadStore.stage(Map.of("users", List.of()));
+
+        assertThatThrownBy(() -> service.launch(job, payload(payloadId), false))
+                .isInstanceOf(JobAdmissionException.class);
+
+        assertThat(payloadStore.resource(payloadId).exists()).isFalse();
+        admissionQueue.release(running);
+    }
+
+    @Test
+    void keepsThePayloadOfARestartTurnedAway() throws Exception {
+        JobAdmissionQueue admissionQueue = admissionQueue();
+        JobLaunchService service = service(admissionQueue);
+        String payloadId = payloadStore.stage(Map.of("users", List.of()));
+        failing = true;
+        JobExecution failed = service.launch(job, payload(payloadId), false);
+        List<JobAdmissionQueue.Ticket> full = fill(admissionQueue);
+
+        assertThatThrownBy(() -> service.restart(failed.getId(), true))
+                .isInstanceOf(JobAdmissionException.class);
+
+        assertThat(payloadStore.resource(payloadId).exists()).isTrue();
+        full.forEach(admissionQueue::release);
+    }
+
+    @Test
+    void restartsAFailedExecutionWithItsOwnParameters() throws Exception {
+        JobLaunchService service = service(admissionQueue());
+        failing = true;
+        JobExecution failed = service.launch(job, new JobParametersBuilder().addLong("run", 1L).toJobParameters(), false);
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+
+        failing = false;
+        JobExecution restarted = service.restart(failed.getId(), false).orElseThrow();
+
+        assertThat(restarted.getId()).isNotEqualTo(failed.getId());
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.getJobInstance().getInstanceId()).isEqualTo(failed.getJobInstance().getInstanceId());
+        assertThat(restarted.getJobParameters()).isEqualTo(failed.getJobParameters());
+    }
+
+    @Test
+    void findsNoExecutionToRestartForAnUnknownId() throws Exception {
+        assertThat(service(admissionQueue()).restart(42L, false)).isEmpty();
+    }
+
+    @Test
+    void refusesToRestartAnExecutionThatDidNotFail() throws Exception {
+        JobLaunchService service = service(admissionQueue());
+        JobExecution completed = service.launch(job, new JobParametersBuilder().addLong("run", 1L).toJobParameters(), false);
+
+        assertThatThrownBy(() -> service.restart(completed.getId(), false))
+                .isInstanceOf(JobRestartException.class)
+                .hasMessageContaining("is COMPLETED");
+    }
+
+    @Test
+    void refusesToRestartAnExecutionThatWasAlreadyRestarted() throws Exception {
+        JobLaunchService service = service(admissionQueue());
+        failing = true;
+        JobExecution failed = service.launch(job, new JobParametersBuilder().addLong("run", 1L).toJobParameters(), false);
+        JobExecution failedAgain = service.restart(failed.getId(), false).orElseThrow();
+        assertThat(failedAgain.getStatus()).isEqualTo(BatchStatus.FAILED);
+
+        assertThatThrownBy(() -> service.restart(failed.getId(), false))
+                .isInstanceOf(JobRestartException.class)
+                .hasMessageContaining("already restarted as execution " + failedAgain.getId());
+    }
+
+    private static JobParameters payload(String payloadId) {
+        return new JobParametersBuilder().addString(PayloadStore.PAYLOAD_ID_PARAMETER, payloadId).toJobParameters();
+    }
+
+    private JobAdmissionQueue admissionQueue() {
+        return new JobAdmissionQueue(new JobAdmissionProperties(1, 1, 10, 50, 30, Map.of()), Runnable::run,
+                new SimpleMeterRegistry());
+    }
+
+    // One launch running and ten queued behind it
+    private static List<JobAdmissionQueue.Ticket> fill(JobAdmissionQueue admissionQueue) throws Exception {
+        List<JobAdmissionQueue.Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            tickets.add(admissionQueue.enqueue("otherJob"));
+        }
+        return tickets;
+    }
+
+    private JobLaunchService service(JobAdmissionQueue admissionQueue) throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+        return new JobLaunchService(jobRepository, jobLauncher, jobExplorer, admissionQueue, payloadStore, List.of(job));
+    }
+}